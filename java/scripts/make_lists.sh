@@ -6,17 +6,17 @@ if [ -z "${TWL}" ];then
     exit 1
 fi
 
-MAKEDAWG=`which makedawg 2>/dev/null`
-if [ -z "${MAKEDAWG}" ];then
-    echo "Error: could not find makedawg command"
-    exit 2
-fi
-
 if [ ! -d "src/Data" ];then
     echo "Error: could not find Data directory"
     exit 3
 fi
 
+# The lists are built by DictionaryBuilder, then folded into lists.dawg by MultiLexicon
+if [ ! -f "build/classes/Dictionary/DictionaryBuilder.class" ];then
+    echo "Error: could not find build/classes, run ant compile first"
+    exit 4
+fi
+
 cp $TWL src/Data/twl.txt
 grep ^..$ src/Data/twl.txt > src/Data/2letterwords.txt
 grep ^...$ src/Data/twl.txt > src/Data/3letterwords.txt
@@ -28,15 +28,24 @@ grep '^[uU][nN]' src/Data/twl.txt > src/Data/un.txt
 grep '^[pP][rR][eE]' src/Data/twl.txt > src/Data/pre.txt
 grep '^[oO][uU][tT]' src/Data/twl.txt > src/Data/out.txt
 
-${MAKEDAWG} src/Data/twl.txt
-${MAKEDAWG} src/Data/2letterwords.txt
-${MAKEDAWG} src/Data/3letterwords.txt
-${MAKEDAWG} src/Data/4letterwords.txt
-${MAKEDAWG} src/Data/7letterwords.txt
-${MAKEDAWG} src/Data/est.txt
-${MAKEDAWG} src/Data/ing.txt
-${MAKEDAWG} src/Data/un.txt
-${MAKEDAWG} src/Data/pre.txt
-${MAKEDAWG} src/Data/out.txt
+java -cp build/classes Dictionary.DictionaryBuilder src/Data/twl.txt
+java -cp build/classes Dictionary.DictionaryBuilder src/Data/2letterwords.txt
+java -cp build/classes Dictionary.DictionaryBuilder src/Data/3letterwords.txt
+java -cp build/classes Dictionary.DictionaryBuilder src/Data/4letterwords.txt
+java -cp build/classes Dictionary.DictionaryBuilder src/Data/7letterwords.txt
+java -cp build/classes Dictionary.DictionaryBuilder src/Data/est.txt
+java -cp build/classes Dictionary.DictionaryBuilder src/Data/ing.txt
+java -cp build/classes Dictionary.DictionaryBuilder src/Data/un.txt
+java -cp build/classes Dictionary.DictionaryBuilder src/Data/pre.txt
+java -cp build/classes Dictionary.DictionaryBuilder src/Data/out.txt
 rm src/Data/*.txt
 
+# Same order as DictionaryRegistry.LISTS
+SUBLISTS="2letterwords 3letterwords 4letterwords 7letterwords est ing un pre out"
+ARGS=""
+for LIST in ${SUBLISTS};do
+    ARGS="${ARGS} src/Data/${LIST}.dawg"
+done
+java -cp build/classes Dictionary.MultiLexicon src/Data/lists.dawg src/Data/twl.dawg ${ARGS} || exit 5
+rm ${ARGS}
+
@@ -0,0 +1,135 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Assistant;
+
+import Assistant.util.*;
+import Dictionary.*;
+import Game.*;
+
+// Finds every word a rack can make by walking the dictionary once.  The rack is kept
+// as a count of tiles per letter, with blanks in the last slot, and each child of a
+// node is followed while there is still a tile, or a blank, left to play on it
+class AnagramSearch {
+    private static final int BLANK_SLOT = 26;
+
+    private final Lexicon dawg;
+    private final DictionaryConstraint constraint;
+    private final MoveSink sink;
+
+    // Tiles not yet played for each letter, and how many of them are left
+    private final Tile[][] tiles = new Tile[27][];
+    private final int[] counts = new int[27];
+
+    // Letters the word could still end up with, used against required letters
+    private final int[] available = new int[26];
+
+    // The word being spelled and the tiles played to spell it
+    private final char[] word;
+    private final Tile[] played;
+
+    AnagramSearch(Rack rack, Lexicon initDawg, DictionaryConstraint initConstraint, MoveSink initSink) {
+        dawg = initDawg;
+        constraint = initConstraint;
+        sink = initSink;
+
+        for (int index=0; index<rack.size(); index++) {
+            counts[slot(rack.tile(index))]++;
+        }
+        for (int slot=0; slot<tiles.length; slot++) {
+            tiles[slot] = new Tile[counts[slot]];
+            counts[slot] = 0;
+        }
+        for (int index=0; index<rack.size(); index++) {
+            int slot = slot(rack.tile(index));
+            tiles[slot][counts[slot]++] = rack.tile(index);
+        }
+        System.arraycopy(counts, 0, available, 0, available.length);
+
+        word = new char[rack.size()];
+        played = new Tile[rack.size()];
+    }
+
+    // Blanks, selected or not, share the last slot
+    private static int slot(Tile tile) {
+        if ( tile.isBlank() ) { return BLANK_SLOT; }
+        return tile.value() - 'A';
+    }
+
+    public void search() {
+        if ( word.length < constraint.minLength() ) { return; }
+
+        extend(dawg.root(), 0, 0);
+    }
+
+    // Play every tile that can follow node onto the end of the word
+    private void extend(int node, int length, int points) {
+        if ( length == word.length || length >= constraint.maxLength() ) { return; }
+        if ( sink.isDone() ) { return; }
+
+        int nextNode = dawg.child(node);
+        while ( nextNode != Lexicon.NONE ) {
+            char letter = dawg.value(nextNode);
+            int slot = letter - 'A';
+
+            if ( slot >= 0 && slot < BLANK_SLOT ) {
+                // A real tile first, then a blank standing in for it
+                if ( counts[slot] > 0 ) {
+                    Tile tile = tiles[slot][--counts[slot]];
+                    visit(nextNode, length, points + tile.points(), letter, tile);
+                    counts[slot]++;
+                }
+                if ( counts[BLANK_SLOT] > 0 ) {
+                    Tile tile = tiles[BLANK_SLOT][--counts[BLANK_SLOT]];
+                    available[slot]++;
+                    visit(nextNode, length, points, letter, tile);
+                    available[slot]--;
+
+                    counts[BLANK_SLOT]++;
+                }
+            }
+
+            nextNode = dawg.sibling(nextNode);
+        }
+    }
+
+    // The tile has just been played on node, record the word if there is one and keep going
+    private void visit(int node, int length, int points, char letter, Tile tile) {
+        // Blanks left over are all that can make up for required letters we cannot have anymore
+        if ( constraint.missingLetters(available) > counts[BLANK_SLOT] ) { return; }
+
+        word[length] = letter;
+        played[length] = tile;
+        length++;
+
+        if ( dawg.isTerminal(node) && constraint.validate(word, 0, length) ) {
+            addMove(length, points);
+        }
+
+        extend(node, length, points);
+    }
+
+    // Words are not played on the board, so there is no rack left over to report
+    private void addMove(int length, int points) {
+        if ( length == Rack.MAX_TILES ) { points += 50; }
+        if ( ! sink.accepts(points) ) { return; }
+
+        sink.visit(7, 7, Move.HORIZONTAL, word, played, 0, length, points, length, null);
+    }
+}
@@ -0,0 +1,164 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Assistant;
+
+import Dictionary.*;
+import Game.*;
+
+// Finds every move on the board the way Appel and Jacobson describe it.  Words are
+// grown through the dictionary from a left part placed before each anchor
+class AnchorSearch extends BoardSearch {
+    private final char[] leftPart = new char[Rack.MAX_TILES];
+    private final Tile[] leftTiles = new Tile[Rack.MAX_TILES];
+
+    AnchorSearch(CrossCheckTable crossChecks, Rack rack, Lexicon initDawg, MoveSink initSink) {
+        super(crossChecks, rack, initDawg, initSink);
+    }
+
+    protected void searchAnchor(int anchorPosition) {
+        Tile[] squares = lines[direction][line];
+
+        // Tiles already before the anchor are the only left part there can be
+        if ( anchorPosition > 0 && squares[anchorPosition-1] != null ) {
+            int start = anchorPosition;
+            int node = dawg.root();
+            while ( start > 0 && squares[start-1] != null ) { start--; }
+            for (int index=start; index<anchorPosition && node != Lexicon.NONE; index++) {
+                word[index] = squares[index].value();
+                played[index] = null;
+                node = dawg.child(node, squares[index].value());
+            }
+            if ( node == Lexicon.NONE ) { return; }
+
+            int points = 0;
+            for (int index=start; index<anchorPosition; index++) {
+                points += squares[index].points();
+            }
+            extendRight(start, anchorPosition, anchorPosition, node, points, 1, 0, 0);
+            return;
+        }
+
+        // Otherwise the left part goes on the empty squares before the anchor that are
+        // not anchors themselves, nothing there has a crossword
+        int limit = 0;
+        while ( limit < anchorPosition && limit < rackSize-1 && ! isAnchor(anchorPosition-limit-1) ) {
+            limit++;
+        }
+        leftPart(anchorPosition, 0, limit, dawg.root());
+    }
+
+    // Build every left part up to limit letters long, then extend each one to the right
+    private void leftPart(int anchorPosition, int length, int limit, int node) {
+        int start = anchorPosition - length;
+        int points = 0;
+        int wordMultiplier = 1;
+        for (int index=0; index<length; index++) {
+            word[start+index] = leftPart[index];
+            played[start+index] = leftTiles[index];
+            points += letterPoints(start+index, leftTiles[index]);
+            wordMultiplier *= wordMultiplier(start+index);
+        }
+        extendRight(start, anchorPosition, anchorPosition, node, points, wordMultiplier, 0, length);
+
+        if ( length == limit ) { return; }
+
+        int nextNode = dawg.child(node);
+        while ( nextNode != Lexicon.NONE ) {
+            char letter = dawg.value(nextNode);
+            int slot = letter - 'A';
+
+            if ( slot >= 0 && slot < BLANK_SLOT ) {
+                if ( counts[slot] > 0 ) {
+                    Tile tile = tiles[slot][--counts[slot]];
+                    leftPart[length] = letter;
+                    leftTiles[length] = tile;
+                    leftPart(anchorPosition, length+1, limit, nextNode);
+                    counts[slot]++;
+                }
+                if ( counts[BLANK_SLOT] > 0 ) {
+                    Tile tile = tiles[BLANK_SLOT][--counts[BLANK_SLOT]];
+                    leftPart[length] = letter;
+                    leftTiles[length] = tile;
+                    leftPart(anchorPosition, length+1, limit, nextNode);
+
+                    counts[BLANK_SLOT]++;
+                }
+            }
+
+            nextNode = dawg.sibling(nextNode);
+        }
+    }
+
+    // Grow the word from start through position, recording it whenever it ends past the anchor
+    private void extendRight(int start, int anchorPosition, int position, int node, int points, int wordMultiplier, int crossScore, int tilesPlayed) {
+        Tile[] squares = lines[direction][line];
+
+        // Tiles already on the board have to be followed
+        while ( position < SIZE && squares[position] != null ) {
+            node = dawg.child(node, squares[position].value());
+            if ( node == Lexicon.NONE ) { return; }
+
+            word[position] = squares[position].value();
+            played[position] = null;
+            points += squares[position].points();
+            position++;
+        }
+
+        if ( position > anchorPosition && dawg.isTerminal(node) ) {
+            addMove(start, position, points * wordMultiplier + crossScore, tilesPlayed);
+        }
+        if ( position == SIZE || tilesPlayed == rackSize ) { return; }
+        if ( cannotScore(-1, position, points, wordMultiplier, crossScore, tilesPlayed) ) { return; }
+
+        int mask = crossMask[direction][line][position];
+        int nextNode = dawg.child(node);
+        while ( nextNode != Lexicon.NONE ) {
+            char letter = dawg.value(nextNode);
+            int slot = letter - 'A';
+
+            if ( (Lexicon.letterBit(letter) & mask) != 0 ) {
+                if ( counts[slot] > 0 ) {
+                    Tile tile = tiles[slot][--counts[slot]];
+                    placeRight(start, anchorPosition, position, nextNode, letter, tile, points, wordMultiplier, crossScore, tilesPlayed);
+                    counts[slot]++;
+                }
+                if ( counts[BLANK_SLOT] > 0 ) {
+                    Tile tile = tiles[BLANK_SLOT][--counts[BLANK_SLOT]];
+                    placeRight(start, anchorPosition, position, nextNode, letter, tile, points, wordMultiplier, crossScore, tilesPlayed);
+
+                    counts[BLANK_SLOT]++;
+                }
+            }
+
+            nextNode = dawg.sibling(nextNode);
+        }
+    }
+
+    // Put a rack tile on the empty square at position and keep extending
+    private void placeRight(int start, int anchorPosition, int position, int node, char letter, Tile tile, int points, int wordMultiplier, int crossScore, int tilesPlayed) {
+        word[position] = letter;
+        played[position] = tile;
+
+        int letterPoints = letterPoints(position, tile);
+        int multiplier = wordMultiplier(position);
+
+        extendRight(start, anchorPosition, position+1, node, points + letterPoints, wordMultiplier * multiplier, crossScore + crossScore(position, letterPoints), tilesPlayed+1);
+    }
+}
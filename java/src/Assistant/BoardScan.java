@@ -0,0 +1,218 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Assistant;
+
+import Dictionary.*;
+import Game.*;
+
+// State for the original board scan, reused for every starting square of a hook.  The
+// rack is kept as tile counts and the word, with the rack tile on each of its squares,
+// is spelled into buffers, so nothing is allocated for the sink
+class BoardScan {
+    private static final int BLANK_SLOT = 26;
+
+    private final Board board;
+    private final Lexicon dawg;
+    private final Rack rack;
+    private final MoveSink sink;
+
+    // Rack tiles not yet played for each letter, blanks in the last slot
+    private final Tile[][] tiles = new Tile[27][];
+    private final int[] counts = new int[27];
+
+    // The word being built from the starting square, and the rack tile on each of its
+    // squares, null where the board has a tile
+    private final char[] word = new char[Board.MAX_ROWS];
+    private final Tile[] placed = new Tile[Board.MAX_ROWS];
+    private int placedCount;
+
+    // Crosswords are spelled into their own buffer
+    private final char[] crossword = new char[Board.MAX_ROWS];
+
+    private int startRow;
+    private int startCol;
+    private int direction;
+    private int rowStep;
+    private int colStep;
+    private int hook;
+
+    BoardScan(Board initBoard, Rack initRack, Lexicon initDawg, MoveSink initSink) {
+        board = initBoard;
+        rack = initRack;
+        dawg = initDawg;
+        sink = initSink;
+
+        for (int index=0; index<rack.size(); index++) {
+            counts[slot(rack.tile(index))]++;
+        }
+        for (int slot=0; slot<tiles.length; slot++) {
+            tiles[slot] = new Tile[counts[slot]];
+            counts[slot] = 0;
+        }
+        for (int index=0; index<rack.size(); index++) {
+            int slot = slot(rack.tile(index));
+            tiles[slot][counts[slot]++] = rack.tile(index);
+        }
+    }
+
+    // Blanks, selected or not, share the last slot
+    private static int slot(Tile tile) {
+        if ( tile.isBlank() ) { return BLANK_SLOT; }
+        return tile.value() - 'A';
+    }
+
+    // Find the words starting at row,col that reach past the hook, which is a row for
+    // vertical moves and a column for horizontal ones
+    void find(int row, int col, int initDirection, int initHook) {
+        startRow = row;
+        startCol = col;
+        direction = initDirection;
+        hook = initHook;
+
+        rowStep = 0;
+        colStep = 0;
+        if ( direction == Move.VERTICAL ) {
+            rowStep = 1;
+        } else {
+            colStep = 1;
+        }
+
+        placedCount = 0;
+        extend(dawg.root(), 0, 0, 1, 0);
+    }
+
+    // The score is carried along as the main word's letter points, its word multiplier,
+    // and the total of the crosswords made so far
+    private void extend(int node, int length, int points, int wordMultiplier, int crosswordScore) {
+        int row = startRow + rowStep*length;
+        int col = startCol + colStep*length;
+
+        // Tiles already on the board have to be followed
+        while ( board.tile(row, col) != null ) {
+            node = dawg.child(node, board.tile(row, col).value());
+            if ( node == Lexicon.NONE ) { return; }
+
+            word[length] = board.tile(row, col).value();
+            placed[length++] = null;
+            points += board.tile(row, col).points();
+            row += rowStep;
+            col += colStep;
+        }
+
+        // We actually have a play on this board if it reaches past the hook
+        if ( rowStep*row + colStep*col > hook && dawg.isTerminal(node) ) {
+            addMove(length, points * wordMultiplier + crosswordScore);
+        }
+
+        // Dont go past the end of the board
+        if ( row >= Board.MAX_ROWS || col >= Board.MAX_COLUMNS ) { return; }
+
+        int nextNode = dawg.child(node);
+        while ( nextNode != Lexicon.NONE ) {
+            char letter = dawg.value(nextNode);
+            int slot = letter - 'A';
+
+            if ( slot >= 0 && slot < BLANK_SLOT ) {
+                if ( counts[slot] > 0 ) {
+                    Tile tile = tiles[slot][--counts[slot]];
+                    place(nextNode, letter, tile, length, row, col, points, wordMultiplier, crosswordScore);
+                    counts[slot]++;
+                }
+                if ( counts[BLANK_SLOT] > 0 ) {
+                    Tile tile = tiles[BLANK_SLOT][--counts[BLANK_SLOT]];
+                    place(nextNode, letter, tile, length, row, col, points, wordMultiplier, crosswordScore);
+
+                    counts[BLANK_SLOT]++;
+                }
+            }
+
+            nextNode = dawg.sibling(nextNode);
+        }
+    }
+
+    // Put a rack tile, as letter, on the empty square at row,col if its crossword allows it, then undo it
+    private void place(int node, char letter, Tile tile, int length, int row, int col, int points, int wordMultiplier, int crosswordScore) {
+        int squareBonus = board.bonus(row, col);
+        int letterPoints = tile.points();
+        if ( squareBonus == Board.DLS ) { letterPoints *= 2; }
+        if ( squareBonus == Board.TLS ) { letterPoints *= 3; }
+        int multiplier = 1;
+        if ( squareBonus == Board.DWS ) { multiplier = 2; }
+        if ( squareBonus == Board.TWS ) { multiplier = 3; }
+
+        int score = crossword(letter, row, col, letterPoints, multiplier);
+        if ( score < 0 ) { return; }
+
+        word[length] = letter;
+        placed[length] = tile;
+        placedCount++;
+        extend(node, length+1, points + letterPoints, wordMultiplier * multiplier, crosswordScore + score);
+        placedCount--;
+    }
+
+    // Score of the crossword the letter makes at row,col, 0 if there is none and -1 if it is
+    // not a word.  The square's bonuses count for the crossword as well
+    private int crossword(char letter, int row, int col, int letterPoints, int multiplier) {
+        if ( ! WordPlay.boardPositionIsValidHook(board, row, col) ) { return 0; }
+
+        // The crossword runs the other way
+        int crossRowStep = colStep;
+        int crossColStep = rowStep;
+
+        int crossRow = row;
+        int crossCol = col;
+        while ( board.tile(crossRow - crossRowStep, crossCol - crossColStep) != null ) {
+            crossRow -= crossRowStep;
+            crossCol -= crossColStep;
+        }
+
+        int length = 0;
+        int points = letterPoints;
+        int nextRow = crossRow;
+        int nextCol = crossCol;
+        while ( nextRow != row || nextCol != col ) {
+            crossword[length++] = board.tile(nextRow, nextCol).value();
+            points += board.tile(nextRow, nextCol).points();
+            nextRow += crossRowStep;
+            nextCol += crossColStep;
+        }
+        crossword[length++] = letter;
+        nextRow += crossRowStep;
+        nextCol += crossColStep;
+        while ( board.tile(nextRow, nextCol) != null ) {
+            crossword[length++] = board.tile(nextRow, nextCol).value();
+            points += board.tile(nextRow, nextCol).points();
+            nextRow += crossRowStep;
+            nextCol += crossColStep;
+        }
+
+        if ( length == 1 ) { return 0; }
+        if ( ! dawg.validWord(crossword, 0, length) ) { return -1; }
+
+        return points * multiplier;
+    }
+
+    private void addMove(int length, int score) {
+        if ( placedCount == Rack.MAX_TILES ) { score += 50; }
+        if ( ! sink.accepts(score) ) { return; }
+
+        sink.visit(startRow, startCol, direction, word, placed, 0, length, score, placedCount, rack);
+    }
+}
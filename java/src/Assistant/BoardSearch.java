@@ -0,0 +1,358 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Assistant;
+
+import Dictionary.*;
+import Game.*;
+import java.util.*;
+
+// What every board move search shares.  The board is read once into lines, indexed
+// [row][col] for horizontal lines and [col][row] for vertical ones, so either direction
+// reads along the second index.  Empty squares next to a tile are anchors, and the
+// letters each empty square allows come from a CrossCheckTable.  Subclasses decide how
+// words are grown through their dictionary from each anchor.
+// A blank is played as it is, the letter it stands for only goes in word[], so the board,
+// the rack and the dictionary are only ever read and any number of searches can share them
+abstract class BoardSearch {
+    protected static final int BLANK_SLOT = 26;
+    protected static final int SIZE = Board.MAX_ROWS;
+
+    protected final Board board;
+    protected final Lexicon dawg;
+    private final Rack rack;
+    private final MoveSink sink;
+
+    protected final Tile[][][] lines = new Tile[2][SIZE][SIZE];
+    private final int[][][] bonus = new int[2][SIZE][SIZE];
+
+    // Per direction and square: letters allowed by the crossword, and the face value of
+    // the crossword's other tiles (or -1 if there is no crossword)
+    protected final int[][][] crossMask;
+    protected final int[][][] crossPoints;
+
+    // Anchors on each line, one bit per position, and every anchor in the order they are
+    // searched, as direction, line and position packed together.  Pruning sorts them and
+    // keeps the most each one could score
+    private final int[][] anchors = new int[2][SIZE];
+    private final int[] anchorList;
+    private final int anchorCount;
+    private int[] anchorBounds;
+
+    // Rack tiles not yet played for each letter, blanks in the last slot
+    protected final Tile[][] tiles = new Tile[27][];
+    protected final int[] counts = new int[27];
+    protected final int rackSize;
+
+    // The line being searched, and the move being built on it
+    protected int direction;
+    protected int line;
+    protected final char[] word = new char[SIZE];
+    protected final Tile[] played = new Tile[SIZE];
+
+    // Branch and bound, off unless asked for.  The points on the highest so many rack
+    // tiles, for each count of tiles.  Then for the line being bounded, from each
+    // position either way along it, and for each count of tiles: the most that many tiles
+    // can add on the first empty squares that way in letters, word multiplier and
+    // crosswords, the points on board tiles the word runs over to reach them, and how
+    // many of those squares there are.  Leftward tables are indexed one past the
+    // position, so both ways have an empty table off the ends of the line
+    private static final int RIGHTWARD = 0;
+    private static final int LEFTWARD = 1;
+    private boolean pruning;
+    private final int[] rackPoints;
+    private int boundDirection = -1;
+    private int boundLine = -1;
+    private final int[] reachEmpties = new int[2*(SIZE+1)];
+    private final int[] reachBoardPoints = new int[2*(SIZE+1)*(Rack.MAX_TILES+1)];
+    private final int[] reachLetterPoints = new int[2*(SIZE+1)*(Rack.MAX_TILES+1)];
+    private final int[] reachWordMultiplier = new int[2*(SIZE+1)*(Rack.MAX_TILES+1)];
+    private final int[] reachCrossScore = new int[2*(SIZE+1)*(Rack.MAX_TILES+1)];
+
+    // The cross-checks have to be up to date for this dictionary already.  The search only
+    // reads them, so any number of searches can share one table
+    BoardSearch(CrossCheckTable crossChecks, Rack initRack, Lexicon initDawg, MoveSink initSink) {
+        board = crossChecks.board();
+        rack = initRack;
+        dawg = initDawg;
+        sink = initSink;
+
+        crossMask = crossChecks.crossMask;
+        crossPoints = crossChecks.crossPoints;
+
+        for (int index=0; index<rack.size(); index++) {
+            counts[slot(rack.tile(index))]++;
+        }
+        for (int slot=0; slot<tiles.length; slot++) {
+            tiles[slot] = new Tile[counts[slot]];
+            counts[slot] = 0;
+        }
+        for (int index=0; index<rack.size(); index++) {
+            int slot = slot(rack.tile(index));
+            tiles[slot][counts[slot]++] = rack.tile(index);
+        }
+        rackSize = rack.size();
+
+        int[] points = new int[rackSize];
+        for (int index=0; index<rackSize; index++) {
+            points[index] = rack.tile(index).isBlank() ? 0 : rack.tile(index).points();
+        }
+        Arrays.sort(points);
+        rackPoints = new int[rackSize+1];
+        for (int index=0; index<rackSize; index++) {
+            rackPoints[index+1] = rackPoints[index] + points[rackSize-1-index];
+        }
+
+        for (int row=0; row<SIZE; row++) {
+            for (int col=0; col<SIZE; col++) {
+                Tile tile = board.tile(row, col);
+                lines[0][row][col] = tile;
+                lines[1][col][row] = tile;
+                bonus[0][row][col] = board.bonus(row, col);
+                bonus[1][col][row] = board.bonus(row, col);
+            }
+        }
+
+        // With nothing on the board the center is the only anchor
+        int count = 0;
+        for (int square=board.nextAnchor(0); square>=0; square=board.nextAnchor(square+1)) {
+            int row = square / Board.MAX_COLUMNS;
+            int col = square % Board.MAX_COLUMNS;
+            anchors[0][row] |= 1 << col;
+            anchors[1][col] |= 1 << row;
+            count += 2;
+        }
+
+        // An empty board is only played horizontally, through the center
+        if ( board.empty() ) { count = 1; }
+
+        anchorList = new int[count];
+        anchorCount = count;
+        count = 0;
+        for (int nextDirection=0; nextDirection<2 && count<anchorCount; nextDirection++) {
+            for (int nextLine=0; nextLine<SIZE; nextLine++) {
+                int lineAnchors = anchors[nextDirection][nextLine];
+                while ( lineAnchors != 0 ) {
+                    anchorList[count++] = (nextDirection*SIZE + nextLine)*SIZE + Integer.numberOfTrailingZeros(lineAnchors);
+                    lineAnchors &= lineAnchors - 1;
+                }
+            }
+        }
+    }
+
+    // Blanks, selected or not, share the last slot
+    protected static int slot(Tile tile) {
+        if ( tile.isBlank() ) { return BLANK_SLOT; }
+        return tile.value() - 'A';
+    }
+
+    public int anchorCount() { return anchorCount; }
+
+    // With pruning on, a branch is given up as soon as the best score it could still
+    // reach is one the sink would not accept.  That never loses a move the sink keeps
+    // as long as the scores it accepts only ever go up, as with a full MovePackage.
+    // The most promising lines are searched first, so those scores go up early
+    public void setPruning(boolean value) {
+        pruning = value;
+        if ( pruning && anchorBounds == null ) { orderAnchors(); }
+    }
+
+    // Sort the lines on the most a word through any of their anchors could score, so
+    // each line's tables are only filled in once
+    private void orderAnchors() {
+        int[] bounds = new int[2*SIZE*SIZE];
+        int[] lineBounds = new int[2*SIZE];
+        for (int index=0; index<anchorCount; index++) {
+            int anchor = anchorList[index];
+            direction = anchor / (SIZE*SIZE);
+            line = anchor / SIZE % SIZE;
+            if ( direction != boundDirection || line != boundLine ) { boundLine(); }
+
+            int position = anchor % SIZE;
+            bounds[anchor] = bound(position, position+1, 0, 1, 0, 0);
+            lineBounds[anchor / SIZE] = Math.max(lineBounds[anchor / SIZE], bounds[anchor]);
+        }
+
+        long[] order = new long[anchorCount];
+        for (int index=0; index<anchorCount; index++) {
+            order[index] = (long) lineBounds[anchorList[index] / SIZE] << 32 | anchorList[index];
+        }
+        Arrays.sort(order);
+
+        anchorBounds = new int[anchorCount];
+        for (int index=0; index<anchorCount; index++) {
+            anchorList[index] = (int) order[anchorCount-1-index];
+            anchorBounds[index] = bounds[anchorList[index]];
+        }
+    }
+
+    public void search() {
+        search(0, anchorCount);
+    }
+
+    // Search the anchors from first up to end.  A move is only ever found from one
+    // anchor, so searches of different anchors never find the same move.  The sink is
+    // asked whether it is done between anchors
+    public void search(int first, int end) {
+        for (int index=first; index<end; index++) {
+            if ( sink.isDone() ) { return; }
+
+            int anchor = anchorList[index];
+            direction = anchor / (SIZE*SIZE);
+            line = anchor / SIZE % SIZE;
+            if ( pruning ) {
+                if ( ! sink.accepts(anchorBounds[index]) ) { continue; }
+                if ( direction != boundDirection || line != boundLine ) { boundLine(); }
+            }
+            searchAnchor(anchor % SIZE);
+        }
+    }
+
+    // Find every move on the current line that places a tile on this anchor
+    protected abstract void searchAnchor(int anchorPosition);
+
+    protected boolean isAnchor(int position) {
+        return (anchors[direction][line] & (1 << position)) != 0;
+    }
+
+    // Points a rack tile is worth on an empty square, and what the square does to the word
+    protected int letterPoints(int position, Tile tile) {
+        int squareBonus = bonus[direction][line][position];
+        if ( squareBonus == Board.DLS ) { return tile.points() * 2; }
+        if ( squareBonus == Board.TLS ) { return tile.points() * 3; }
+        return tile.points();
+    }
+    protected int wordMultiplier(int position) {
+        int squareBonus = bonus[direction][line][position];
+        if ( squareBonus == Board.DWS ) { return 2; }
+        if ( squareBonus == Board.TWS ) { return 3; }
+        return 1;
+    }
+
+    // Score for a crossword made by a tile on the empty square at position, 0 if there is none
+    protected int crossScore(int position, int letterPoints) {
+        int points = crossPoints[direction][line][position];
+        if ( points < 0 ) { return 0; }
+
+        return (points + letterPoints) * wordMultiplier(position);
+    }
+
+    // Fill in the tables for the current line
+    private void boundLine() {
+        for (int position=0; position<=SIZE; position++) {
+            boundReach(RIGHTWARD, position, position);
+            boundReach(LEFTWARD, position, position-1);
+        }
+
+        boundDirection = direction;
+        boundLine = line;
+    }
+
+    // Fill in one way from start, stopping at an empty square nothing can go on.  The
+    // highest tiles take the best letter squares, and every crossword is made with the
+    // highest tile
+    private void boundReach(int way, int index, int start) {
+        Tile[] squares = lines[direction][line];
+        int step = way == RIGHTWARD ? 1 : -1;
+        int highest = rackPoints[Math.min(rackSize, 1)];
+        int position = start;
+        int empties = 0;
+        int tripleLetters = 0;
+        int doubleLetters = 0;
+        int boardPoints = 0;
+        int letterPoints = 0;
+        int wordMultiplier = 1;
+        int crossScore = 0;
+
+        for (int count=0; count<=rackSize; count++) {
+            // Board tiles up to the next empty square are part of the word
+            while ( position >= 0 && position < SIZE && squares[position] != null ) {
+                boardPoints += squares[position].points();
+                position += step;
+            }
+            int entry = ((way*(SIZE+1) + index) * (Rack.MAX_TILES+1)) + count;
+            reachBoardPoints[entry] = boardPoints;
+            reachLetterPoints[entry] = letterPoints;
+            reachWordMultiplier[entry] = wordMultiplier;
+            reachCrossScore[entry] = crossScore;
+
+            if ( count == rackSize || position < 0 || position == SIZE ) { continue; }
+            if ( crossMask[direction][line][position] == 0 ) { continue; }
+
+            // One more tile goes on this square
+            int squareBonus = bonus[direction][line][position];
+            int letterMultiplier = 1;
+            if ( squareBonus == Board.TLS ) { tripleLetters++; letterMultiplier = 3; }
+            if ( squareBonus == Board.DLS ) { doubleLetters++; letterMultiplier = 2; }
+            wordMultiplier *= wordMultiplier(position);
+            if ( crossPoints[direction][line][position] >= 0 ) {
+                crossScore += (crossPoints[direction][line][position] + highest * letterMultiplier) * wordMultiplier(position);
+            }
+
+            // Tripled tiles count in all three sums, doubled ones in two
+            empties++;
+            letterPoints = rackPoints[empties] + rackPoints[tripleLetters+doubleLetters] + rackPoints[tripleLetters];
+            position += step;
+        }
+        reachEmpties[way*(SIZE+1) + index] = empties;
+    }
+
+    // True if no word grown from here can be worth a move.  The word so far has the
+    // points, word multiplier and crossword score given.  Any more tiles go on the empty
+    // squares from rightStart on, and from leftStart back unless that is -1
+    protected boolean cannotScore(int leftStart, int rightStart, int points, int wordMultiplier, int crossScore, int tilesPlayed) {
+        return pruning && ! sink.accepts(bound(leftStart, rightStart, points, wordMultiplier, crossScore, tilesPlayed));
+    }
+
+    // The most such a word could score.  When tiles can go both ways each way is given
+    // every tile left, rather than trying each split, which only makes it higher
+    private int bound(int leftStart, int rightStart, int points, int wordMultiplier, int crossScore, int tilesPlayed) {
+        int left = rackSize - tilesPlayed;
+        int right = (RIGHTWARD*(SIZE+1) + rightStart) * (Rack.MAX_TILES+1) + left;
+        int morePoints = reachBoardPoints[right] + reachLetterPoints[right];
+        int moreMultiplier = reachWordMultiplier[right];
+        int moreCrossScore = reachCrossScore[right];
+        int empties = reachEmpties[RIGHTWARD*(SIZE+1) + rightStart];
+
+        if ( leftStart >= 0 ) {
+            int back = (LEFTWARD*(SIZE+1) + leftStart+1) * (Rack.MAX_TILES+1) + left;
+            morePoints += reachBoardPoints[back] + reachLetterPoints[back];
+            moreMultiplier *= reachWordMultiplier[back];
+            moreCrossScore += reachCrossScore[back];
+            empties += reachEmpties[LEFTWARD*(SIZE+1) + leftStart+1];
+        }
+
+        int bound = (points + morePoints) * wordMultiplier * moreMultiplier + crossScore + moreCrossScore;
+        if ( rackSize == Rack.MAX_TILES && empties >= left ) { bound += 50; }
+
+        return bound;
+    }
+
+    // Record the word in word[start..end), with the rack tiles in played[]
+    protected void addMove(int start, int end, int score, int tilesPlayed) {
+        if ( tilesPlayed == Rack.MAX_TILES ) { score += 50; }
+        if ( ! sink.accepts(score) ) { return; }
+
+        if ( direction == 0 ) {
+            sink.visit(line, start, Move.HORIZONTAL, word, played, start, end-start, score, tilesPlayed, rack);
+        } else {
+            sink.visit(start, line, Move.VERTICAL, word, played, start, end-start, score, tilesPlayed, rack);
+        }
+    }
+}
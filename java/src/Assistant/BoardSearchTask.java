@@ -0,0 +1,108 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Assistant;
+
+import Dictionary.*;
+import Game.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Searches a range of a board's anchors, halving the range and forking until it is small
+// enough to search here.  Each piece gets its own search and its own MovePackage, which
+// are merged back together on the way up.  MovePackage keeps the same best moves whatever
+// order they arrive in, so the result does not depend on how the work was scheduled.
+// The cross-checks are brought up to date before the split and only read after it
+class BoardSearchTask extends RecursiveTask<MovePackage> {
+    private static final long serialVersionUID = 1L;
+
+    // A piece's moves.  No move can be one of the best if some piece already has maxMoves
+    // that score more, so the pieces share the lowest score any full piece holds and
+    // none of them builds a move that scores less
+    private static class PieceMoves extends MovePackage {
+        private static final long serialVersionUID = 1L;
+
+        private final AtomicInteger floor;
+
+        PieceMoves(int maxMoves, AtomicInteger initFloor) {
+            super(maxMoves);
+            floor = initFloor;
+        }
+
+        @Override
+        public boolean accepts(int score) {
+            return score >= floor.get() && super.accepts(score);
+        }
+
+        @Override
+        public boolean add(Move move) {
+            if ( ! super.add(move) ) { return false; }
+            if ( size() < maxMoves() ) { return true; }
+
+            int lowest = lowestScore();
+            int current = floor.get();
+            while ( lowest > current && ! floor.compareAndSet(current, lowest) ) {
+                current = floor.get();
+            }
+            return true;
+        }
+    }
+
+    private final CrossCheckTable crossChecks;
+    private final Rack rack;
+    private final Lexicon dawg;
+    private final int maxMoves;
+    private final int first;
+    private final int end;
+    private final int pieceSize;
+    private final AtomicInteger floor;
+
+    BoardSearchTask(CrossCheckTable initCrossChecks, Rack initRack, Lexicon initDawg, int initMaxMoves, int initFirst, int initEnd, int initPieceSize) {
+        this(initCrossChecks, initRack, initDawg, initMaxMoves, initFirst, initEnd, initPieceSize, new AtomicInteger(0));
+    }
+    private BoardSearchTask(CrossCheckTable initCrossChecks, Rack initRack, Lexicon initDawg, int initMaxMoves, int initFirst, int initEnd, int initPieceSize, AtomicInteger initFloor) {
+        crossChecks = initCrossChecks;
+        rack = initRack;
+        dawg = initDawg;
+        maxMoves = initMaxMoves;
+        first = initFirst;
+        end = initEnd;
+        pieceSize = initPieceSize;
+        floor = initFloor;
+    }
+
+    protected MovePackage compute() {
+        if ( end - first <= pieceSize ) {
+            MovePackage moves = new PieceMoves(maxMoves, floor);
+            WordPlay.syncedSearch(crossChecks, rack, dawg, moves).search(first, end);
+            return moves;
+        }
+
+        int middle = (first + end) / 2;
+        BoardSearchTask left = new BoardSearchTask(crossChecks, rack, dawg, maxMoves, first, middle, pieceSize, floor);
+        left.fork();
+        MovePackage moves = new BoardSearchTask(crossChecks, rack, dawg, maxMoves, middle, end, pieceSize, floor).compute();
+
+        MovePackage leftMoves = left.join();
+        for (int index=0; index<leftMoves.size(); index++) {
+            moves.add(leftMoves.get(index));
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,199 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Assistant;
+
+import Dictionary.*;
+import Game.*;
+
+// The letters each empty square allows, for a move in either direction, kept up to date
+// with a board between searches.  Squares are indexed [direction][line][position] the way
+// BoardSearch reads the board: direction 0 runs along rows, so line is the row and
+// position the column, direction 1 runs along columns.
+//
+// A tile added to the board only changes the squares just past the ends of the runs it
+// joins, so only those are checked again.  Anything removed, or a different dictionary,
+// and the whole table is rebuilt
+public class CrossCheckTable {
+    private static final int SIZE = Board.MAX_ROWS;
+
+    private final Board board;
+    private Lexicon dawg;
+    private int syncedAt = -1;
+
+    // Letters allowed by the crossword, and the face value of the crossword's other
+    // tiles (or -1 if there is no crossword).  BoardSearch reads these directly
+    final int[][][] crossMask = new int[2][SIZE][SIZE];
+    final int[][][] crossPoints = new int[2][SIZE][SIZE];
+
+    // A crossword is spelled here with a gap for the letter being tried
+    private final char[] crossword = new char[SIZE];
+
+    public CrossCheckTable(Board initBoard) {
+        board = initBoard;
+    }
+
+    public Board board() { return board; }
+
+    // Bring the table up to date with the board, for this dictionary
+    public void update(Lexicon initDawg) {
+        if ( dawg != initDawg || board.removedAt() > syncedAt ) {
+            dawg = initDawg;
+            for (int direction=0; direction<2; direction++) {
+                for (int line=0; line<SIZE; line++) {
+                    for (int position=0; position<SIZE; position++) {
+                        crossCheck(direction, line, position);
+                    }
+                }
+            }
+        } else if ( board.changeCount() > syncedAt ) {
+            for (int row=0; row<SIZE; row++) {
+                for (int col=0; col<SIZE; col++) {
+                    if ( board.addedAt(row, col) > syncedAt ) { tileAdded(row, col); }
+                }
+            }
+        }
+
+        syncedAt = board.changeCount();
+    }
+
+    // The square itself is taken, and the squares at either end of the column and row
+    // it is now part of have a new crossword
+    private void tileAdded(int row, int col) {
+        crossCheck(0, row, col);
+        crossCheck(1, col, row);
+
+        int top = row;
+        while ( board.tile(top-1, col) != null ) { top--; }
+        int bottom = row;
+        while ( board.tile(bottom+1, col) != null ) { bottom++; }
+        if ( top > 0 ) { crossCheck(0, top-1, col); }
+        if ( bottom < SIZE-1 ) { crossCheck(0, bottom+1, col); }
+
+        int left = col;
+        while ( board.tile(row, left-1) != null ) { left--; }
+        int right = col;
+        while ( board.tile(row, right+1) != null ) { right++; }
+        if ( left > 0 ) { crossCheck(1, left-1, row); }
+        if ( right < SIZE-1 ) { crossCheck(1, right+1, row); }
+    }
+
+    // The letters that may go on an empty square, given the tiles across it
+    private void crossCheck(int direction, int line, int position) {
+        int row = line;
+        int col = position;
+        int rowStep = 1;
+        int colStep = 0;
+        if ( direction == 1 ) {
+            row = position;
+            col = line;
+            rowStep = 0;
+            colStep = 1;
+        }
+
+        crossMask[direction][line][position] = 0;
+        crossPoints[direction][line][position] = -1;
+        if ( board.tile(row, col) != null ) { return; }
+
+        // The crossword runs across the line, through this square
+        int startRow = row;
+        int startCol = col;
+        while ( board.tile(startRow - rowStep, startCol - colStep) != null ) {
+            startRow -= rowStep;
+            startCol -= colStep;
+        }
+
+        int length = 0;
+        int gap = 0;
+        int points = 0;
+        int nextRow = startRow;
+        int nextCol = startCol;
+        while ( (nextRow == row && nextCol == col) || board.tile(nextRow, nextCol) != null ) {
+            if ( nextRow == row && nextCol == col ) {
+                gap = length;
+            } else {
+                crossword[length] = board.tile(nextRow, nextCol).value();
+                points += board.tile(nextRow, nextCol).points();
+            }
+            length++;
+            nextRow += rowStep;
+            nextCol += colStep;
+        }
+
+        if ( length == 1 ) {
+            crossMask[direction][line][position] = Lexicon.ALL_LETTERS;
+            return;
+        }
+
+        crossPoints[direction][line][position] = points;
+        if ( dawg.isGaddag() ) {
+            crossMask[direction][line][position] = gaddagLetters(gap, length) & Lexicon.ALL_LETTERS;
+        } else {
+            crossMask[direction][line][position] = dawgLetters(gap, length) & Lexicon.ALL_LETTERS;
+        }
+    }
+
+    // Walk the top half of the crossword, then try each letter that can follow it against
+    // the bottom half
+    private int dawgLetters(int gap, int length) {
+        int node = dawg.root();
+        for (int index=0; index<gap && node != Lexicon.NONE; index++) {
+            node = dawg.child(node, crossword[index]);
+        }
+        if ( node == Lexicon.NONE ) { return 0; }
+
+        int mask = 0;
+        int nextNode = dawg.child(node);
+        while ( nextNode != Lexicon.NONE ) {
+            int suffixNode = nextNode;
+            for (int index=gap+1; index<length && suffixNode != Lexicon.NONE; index++) {
+                suffixNode = dawg.child(suffixNode, crossword[index]);
+            }
+            if ( suffixNode != Lexicon.NONE && dawg.isTerminal(suffixNode) ) {
+                mask |= Lexicon.letterBit(dawg.value(nextNode));
+            }
+            nextNode = dawg.sibling(nextNode);
+        }
+        return mask;
+    }
+
+    // A letter fits if the crossword rotated around that letter is stored
+    private int gaddagLetters(int gap, int length) {
+        int mask = 0;
+        int letterNode = dawg.child(dawg.root());
+        while ( letterNode != Lexicon.NONE ) {
+            int node = letterNode;
+            for (int index=gap-1; index>=0 && node != Lexicon.NONE; index--) {
+                node = dawg.child(node, crossword[index]);
+            }
+            if ( node != Lexicon.NONE && gap < length-1 ) {
+                node = dawg.child(node, Lexicon.SEPARATOR);
+            }
+            for (int index=gap+1; index<length && node != Lexicon.NONE; index++) {
+                node = dawg.child(node, crossword[index]);
+            }
+            if ( node != Lexicon.NONE && dawg.isTerminal(node) ) {
+                mask |= Lexicon.letterBit(dawg.value(letterNode));
+            }
+
+            letterNode = dawg.sibling(letterNode);
+        }
+        return mask;
+    }
+}
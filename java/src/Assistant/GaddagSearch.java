@@ -0,0 +1,164 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Assistant;
+
+import Dictionary.*;
+import Game.*;
+
+// Finds every move on the board with a GADDAG, the way Gordon describes it.  Each word
+// is grown outward from its anchor: leftward along the reversed prefix first, then over
+// the '#' separator and rightward from the square after the anchor.  Nothing is walked
+// through the dictionary that cannot reach a word, which pays off on crowded boards
+class GaddagSearch extends BoardSearch {
+    GaddagSearch(CrossCheckTable crossChecks, Rack rack, Lexicon initGaddag, MoveSink initSink) {
+        super(crossChecks, rack, initGaddag, initSink);
+    }
+
+    protected void searchAnchor(int anchorPosition) {
+        goLeft(anchorPosition, anchorPosition, dawg.root(), 0, 1, 0, 0);
+    }
+
+    // Fill the square at position, the leftmost so far, from the board or the rack
+    private void goLeft(int anchorPosition, int position, int node, int points, int wordMultiplier, int crossScore, int tilesPlayed) {
+        Tile[] squares = lines[direction][line];
+
+        if ( squares[position] != null ) {
+            node = dawg.child(node, squares[position].value());
+            if ( node == Lexicon.NONE ) { return; }
+
+            word[position] = squares[position].value();
+            played[position] = null;
+            nextLeft(anchorPosition, position, node, points + squares[position].points(), wordMultiplier, crossScore, tilesPlayed);
+            return;
+        }
+        if ( tilesPlayed == rackSize ) { return; }
+
+        // The rest of the word can go on either side of what is down so far
+        if ( cannotScore(position, anchorPosition+1, points, wordMultiplier, crossScore, tilesPlayed) ) { return; }
+
+        int mask = crossMask[direction][line][position] & dawg.childMask(node);
+        int nextNode = dawg.child(node);
+        while ( nextNode != Lexicon.NONE ) {
+            char letter = dawg.value(nextNode);
+            int slot = letter - 'A';
+
+            if ( (Lexicon.letterBit(letter) & mask) != 0 ) {
+                if ( counts[slot] > 0 ) {
+                    Tile tile = tiles[slot][--counts[slot]];
+                    placeLeft(anchorPosition, position, nextNode, letter, tile, points, wordMultiplier, crossScore, tilesPlayed);
+                    counts[slot]++;
+                }
+                if ( counts[BLANK_SLOT] > 0 ) {
+                    Tile tile = tiles[BLANK_SLOT][--counts[BLANK_SLOT]];
+                    placeLeft(anchorPosition, position, nextNode, letter, tile, points, wordMultiplier, crossScore, tilesPlayed);
+
+                    counts[BLANK_SLOT]++;
+                }
+            }
+
+            nextNode = dawg.sibling(nextNode);
+        }
+    }
+
+    private void placeLeft(int anchorPosition, int position, int node, char letter, Tile tile, int points, int wordMultiplier, int crossScore, int tilesPlayed) {
+        word[position] = letter;
+        played[position] = tile;
+
+        int letterPoints = letterPoints(position, tile);
+        nextLeft(anchorPosition, position, node, points + letterPoints, wordMultiplier * wordMultiplier(position), crossScore + crossScore(position, letterPoints), tilesPlayed+1);
+    }
+
+    // With the word now starting at position: record it if it ends at the anchor, keep
+    // going left, or turn around and go right
+    private void nextLeft(int anchorPosition, int position, int node, int points, int wordMultiplier, int crossScore, int tilesPlayed) {
+        Tile[] squares = lines[direction][line];
+        boolean startsWord = position == 0 || squares[position-1] == null;
+
+        if ( startsWord && dawg.isTerminal(node) &&
+                (anchorPosition == SIZE-1 || squares[anchorPosition+1] == null) ) {
+            addMove(position, anchorPosition+1, points * wordMultiplier + crossScore, tilesPlayed);
+        }
+
+        // Empty anchors to the left find their own moves, so stop at the first one
+        if ( position > 0 && (squares[position-1] != null || ! isAnchor(position-1)) ) {
+            goLeft(anchorPosition, position-1, node, points, wordMultiplier, crossScore, tilesPlayed);
+        }
+
+        if ( startsWord && anchorPosition < SIZE-1 ) {
+            node = dawg.child(node, Lexicon.SEPARATOR);
+            if ( node != Lexicon.NONE ) {
+                goRight(position, anchorPosition, anchorPosition+1, node, points, wordMultiplier, crossScore, tilesPlayed);
+            }
+        }
+    }
+
+    // Fill the square at position, the rightmost so far, from the board or the rack
+    private void goRight(int start, int anchorPosition, int position, int node, int points, int wordMultiplier, int crossScore, int tilesPlayed) {
+        Tile[] squares = lines[direction][line];
+
+        // Tiles already on the board have to be followed
+        while ( position < SIZE && squares[position] != null ) {
+            node = dawg.child(node, squares[position].value());
+            if ( node == Lexicon.NONE ) { return; }
+
+            word[position] = squares[position].value();
+            played[position] = null;
+            points += squares[position].points();
+            position++;
+        }
+
+        if ( position > anchorPosition+1 && dawg.isTerminal(node) ) {
+            addMove(start, position, points * wordMultiplier + crossScore, tilesPlayed);
+        }
+        if ( position == SIZE || tilesPlayed == rackSize ) { return; }
+        if ( cannotScore(-1, position, points, wordMultiplier, crossScore, tilesPlayed) ) { return; }
+
+        int mask = crossMask[direction][line][position] & dawg.childMask(node);
+        int nextNode = dawg.child(node);
+        while ( nextNode != Lexicon.NONE ) {
+            char letter = dawg.value(nextNode);
+            int slot = letter - 'A';
+
+            if ( (Lexicon.letterBit(letter) & mask) != 0 ) {
+                if ( counts[slot] > 0 ) {
+                    Tile tile = tiles[slot][--counts[slot]];
+                    placeRight(start, anchorPosition, position, nextNode, letter, tile, points, wordMultiplier, crossScore, tilesPlayed);
+                    counts[slot]++;
+                }
+                if ( counts[BLANK_SLOT] > 0 ) {
+                    Tile tile = tiles[BLANK_SLOT][--counts[BLANK_SLOT]];
+                    placeRight(start, anchorPosition, position, nextNode, letter, tile, points, wordMultiplier, crossScore, tilesPlayed);
+
+                    counts[BLANK_SLOT]++;
+                }
+            }
+
+            nextNode = dawg.sibling(nextNode);
+        }
+    }
+
+    private void placeRight(int start, int anchorPosition, int position, int node, char letter, Tile tile, int points, int wordMultiplier, int crossScore, int tilesPlayed) {
+        word[position] = letter;
+        played[position] = tile;
+
+        int letterPoints = letterPoints(position, tile);
+        goRight(start, anchorPosition, position+1, node, points + letterPoints, wordMultiplier * wordMultiplier(position), crossScore + crossScore(position, letterPoints), tilesPlayed+1);
+    }
+}
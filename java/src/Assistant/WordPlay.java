@@ -19,62 +19,124 @@
 
 package Assistant;
 
+import Assistant.util.*;
 import Dictionary.*;
 import Game.*;
+import java.util.concurrent.*;
 
 // Routines to find words, manipulate game objects, etc...
 public class WordPlay {
+    // Pieces a parallel board search is split into for each thread, so a thread that
+    // finishes early has more to take
+    private static final int PIECES_PER_THREAD = 4;
 
     ////////////////////////////////////////////////////////////////////////////
     //  These routines find words within a rack, user supplies the dictionary //
     ////////////////////////////////////////////////////////////////////////////
 
     // Find all the words within this rack
-    public static MovePackage wordFindall(Rack rack, Dawg dawg) {
+    public static MovePackage wordFindall(Rack rack, Lexicon dawg) {
+        return wordFindall(rack, dawg, DictionaryConstraint.NONE);
+    }
+
+    // Find all the words within this rack that also satisfy the constraint
+    public static MovePackage wordFindall(Rack rack, Lexicon dawg, DictionaryConstraint constraint) {
+        MovePackage wordList = new MovePackage();
+        wordFindall(rack, dawg, constraint, wordList);
+
+        return wordList;
+    }
+    public static void wordFindall(Rack rack, Lexicon dawg, DictionaryConstraint constraint, MoveSink sink) {
+        new AnagramSearch(rack, dawg, constraint, sink).search();
+    }
+
+    // The original search, every permutation of every subset of the rack is looked
+    // up on its own.  Kept to compare against, see TESTING.WordFindallBenchmark
+    public static MovePackage wordFindallPermutations(Rack rack, Lexicon dawg, DictionaryConstraint constraint) {
         MovePackage wordList = new MovePackage();
 
         AssistantRack findallRack = new AssistantRack(rack);
         findallRack.sort();
-        wordFindallSubsets(new AssistantRack(findallRack), new AssistantRack(), 0, wordList, dawg);
+        wordFindallSubsets(new AssistantRack(findallRack), new AssistantRack(), 0, wordList, dawg, constraint);
 
         return wordList;
     }
 
     // Find all subsets of this rack, then check for valid words, update wordList
-    private static void wordFindallSubsets(AssistantRack rack, AssistantRack subset, int position, MovePackage wordList, Dawg dawg) {
+    private static void wordFindallSubsets(AssistantRack rack, AssistantRack subset, int position, MovePackage wordList, Lexicon dawg, DictionaryConstraint constraint) {
         while (position < rack.size()) {
+            // Nothing left to find if no subset from here on can satisfy the constraint
+            if ( ! wordFindallPossible(subset, rack, position, constraint) ) { return; }
+
             AssistantRack nextRack = new AssistantRack(rack);
             AssistantRack nextSubset = new AssistantRack(subset);
-            wordFindallSubsets(nextRack, nextSubset, position + 1, wordList, dawg);
+            wordFindallSubsets(nextRack, nextSubset, position + 1, wordList, dawg, constraint);
 
             subset.add(rack.remove(position));
             subset.sort();
 
+            // Only permutate subsets that could make a word the constraint allows
+            if ( ! wordFindallPossible(subset, rack, rack.size(), constraint) ) { continue; }
+
             // Test for wordRack, add if its good
             subset.sort();
             do {
-                wordFindallValidWord(new AssistantRack(subset), 0, dawg, wordList);
+                wordFindallValidWord(new AssistantRack(subset), new char[subset.size()], 0, dawg, dawg.root(), constraint, wordList);
             } while (subset.permutate());
         }
     }
 
-    // Recursively determine if this rack has formed a valid wordRack, compensating for blanks
-    private static void wordFindallValidWord(AssistantRack rack, int position, Dawg dawg, MovePackage wordList) {
+    // Determine if the subset, plus any of the rack tiles from position on, could still
+    // make a word with the length and letters the constraint asks for
+    private static boolean wordFindallPossible(AssistantRack subset, AssistantRack rack, int position, DictionaryConstraint constraint) {
+        if ( constraint.isEmpty() ) { return true; }
+
+        if ( subset.size() > constraint.maxLength() ) { return false; }
+        if ( subset.size() + rack.size() - position < constraint.minLength() ) { return false; }
+
+        int[] letterCounts = new int[26];
+        int blanks = wordFindallCount(subset, 0, letterCounts) + wordFindallCount(rack, position, letterCounts);
+
+        return constraint.missingLetters(letterCounts) <= blanks;
+    }
+
+    // Count the letters of the rack from position on, returning the number of blanks
+    private static int wordFindallCount(AssistantRack rack, int position, int[] letterCounts) {
+        int blanks = 0;
+        for (int index=position; index<rack.size(); index++) {
+            if ( rack.tile(index).isBlank() ) {
+                blanks++;
+            } else {
+                letterCounts[rack.tile(index).value() - 'A']++;
+            }
+        }
+        return blanks;
+    }
+
+    // Recursively determine if this rack has formed a valid wordRack, compensating for blanks.
+    // Letters go in their own buffer, blanks in the rack are never given one
+    private static void wordFindallValidWord(AssistantRack rack, char[] letters, int position, Lexicon dawg, int node, DictionaryConstraint constraint, MovePackage wordList) {
         // Past the end of the rack, check for wordRack and store results
         if ( position == rack.size() ) {
 
             // Add the wordRack if it is valid
-            if ( dawg.isTerminal() ) {
+            if ( dawg.isTerminal(node) ) {
                 // Check that the wordRack doesnt violate the dictionary constraints
-                if ( dawg.getConstraint().validate(rack.toValueString()) ) {
+                String word = new String(letters, 0, position);
+                if ( constraint.validate(word) ) {
                     Boolean isBingo = false;
                     if ( rack.size() == Rack.MAX_TILES ) { isBingo = true; }
 
+                    byte[] tileCodes = new byte[position];
+                    for (int index=0; index<position; index++) {
+                        tileCodes[index] = TileCode.code(letters[index], rack.tile(index).isBlank());
+                    }
+
                     Move move;
                     if ( isBingo ) {
-                        move = new Move(rack.toValueString(), rack, null, 7, 7, Move.HORIZONTAL, rack.points()+50, true);
+                        move = new Move(word, rack, tileCodes, null, 7, 7, Move.HORIZONTAL, rack.points()+50, true);
                     } else {
-                        move = new Move(rack.toValueString(), rack, null, 7, 7, Move.HORIZONTAL, rack.points(), false);
+                        move = new Move(word, rack, tileCodes, null, 7, 7, Move.HORIZONTAL, rack.points(), false);
                     }
                     wordList.add(move);
 
@@ -85,17 +147,26 @@ public class WordPlay {
 
         // Current tile is a blank, treat it as such
         if ( rack.tile(position).isBlank() ) {
-            Dawg nextNode = dawg.child();
-            while ( nextNode != null ) {
-                rack.tile(position).selectLetter(nextNode.value());
-                wordFindallValidWord(rack, position+1, nextNode, wordList);
+            // Only try letters that the next tile in the rack can follow
+            int followMask = Lexicon.ALL_LETTERS | Lexicon.SEPARATOR_BIT;
+            if ( position+1 < rack.size() && ! rack.tile(position+1).isBlank() ) {
+                followMask = Lexicon.letterBit(rack.tile(position+1).value());
+            }
+
+            int nextNode = dawg.child(node);
+            while ( nextNode != Lexicon.NONE ) {
+                if ( position+1 == rack.size() || (dawg.childMask(nextNode) & followMask) != 0 ) {
+                    letters[position] = dawg.value(nextNode);
+                    wordFindallValidWord(rack, letters, position+1, dawg, nextNode, constraint, wordList);
+                }
 
-                nextNode = nextNode.sibling();
+                nextNode = dawg.sibling(nextNode);
             }
         } else {
-            Dawg child = dawg.child(rack.tile(position).value());
-            if ( child != null ) {
-                wordFindallValidWord(rack, position+1, child, wordList);
+            int child = dawg.child(node, rack.tile(position).value());
+            if ( child != Lexicon.NONE ) {
+                letters[position] = rack.tile(position).value();
+                wordFindallValidWord(rack, letters, position+1, dawg, child, constraint, wordList);
             }
         }
     }
@@ -105,39 +176,116 @@ public class WordPlay {
     //  These routines find words on the board, user supplies the dictionary  //
     ////////////////////////////////////////////////////////////////////////////
 
-    // Find all moves on the board
-    public static MovePackage boardFindall(Board board, Rack rack, Dawg dawg) {
+    // Find all moves on the board.  A GADDAG is searched outward from each anchor, any
+    // other dictionary left to right.  Moves go to a MovePackage, or to any MoveSink
+    // that wants to count them or stop at the first one it likes
+    public static MovePackage boardFindall(Board board, Rack rack, Lexicon dawg) {
+        return boardFindall(new CrossCheckTable(board), rack, dawg);
+    }
+    public static void boardFindall(Board board, Rack rack, Lexicon dawg, MoveSink sink) {
+        boardFindall(new CrossCheckTable(board), rack, dawg, sink);
+    }
+
+    // Same, with cross-checks kept from the last search on this board.  Only the squares
+    // around tiles added since then are checked again
+    public static MovePackage boardFindall(CrossCheckTable crossChecks, Rack rack, Lexicon dawg) {
         MovePackage wordList = new MovePackage();
+        boardFindall(crossChecks, rack, dawg, wordList);
+
+        return wordList;
+    }
+    public static void boardFindall(CrossCheckTable crossChecks, Rack rack, Lexicon dawg, MoveSink sink) {
+        boardSearch(crossChecks, rack, dawg, sink).search();
+    }
 
+    // Same, with the anchors split up across the pool.  Each piece keeps its own best moves
+    // and moveList ends up with exactly the moves, in the same order, a search on a single
+    // thread would have given it
+    public static void boardFindall(CrossCheckTable crossChecks, Rack rack, Lexicon dawg, MovePackage moveList, ForkJoinPool pool) {
+        // Bringing the cross-checks up to date once here leaves the pieces only reading them
+        crossChecks.update(dawg);
+        int anchorCount = syncedSearch(crossChecks, rack, dawg, moveList).anchorCount();
+        int pieceSize = Math.max(1, anchorCount / (pool.getParallelism() * PIECES_PER_THREAD));
+
+        MovePackage moves = pool.invoke(new BoardSearchTask(crossChecks, rack, dawg, moveList.maxMoves(), 0, anchorCount, pieceSize));
+        for (int index=0; index<moves.size(); index++) {
+            moveList.add(moves.get(index));
+        }
+    }
+
+    // Only the best count moves on the board.  Any branch of the search that cannot score
+    // enough to be one of them is given up, which mid-game is most of them, and the moves
+    // are the same ones boardFindall would keep in a MovePackage that size
+    public static MovePackage boardFindallBest(Board board, Rack rack, Lexicon dawg, int count) {
+        return boardFindallBest(new CrossCheckTable(board), rack, dawg, count);
+    }
+    public static MovePackage boardFindallBest(CrossCheckTable crossChecks, Rack rack, Lexicon dawg, int count) {
+        MovePackage moveList = new MovePackage(count);
+        boardFindallBest(crossChecks, rack, dawg, moveList);
+
+        return moveList;
+    }
+
+    // Same, for any sink that never accepts a score again once it has turned it down
+    public static void boardFindallBest(CrossCheckTable crossChecks, Rack rack, Lexicon dawg, MoveSink sink) {
+        BoardSearch search = boardSearch(crossChecks, rack, dawg, sink);
+        search.setPruning(true);
+        search.search();
+    }
+
+    // The search for the kind of dictionary given, after bringing the cross-checks up to
+    // date for it
+    static BoardSearch boardSearch(CrossCheckTable crossChecks, Rack rack, Lexicon dawg, MoveSink sink) {
+        crossChecks.update(dawg);
+        return syncedSearch(crossChecks, rack, dawg, sink);
+    }
+
+    // Same, on cross-checks already up to date for dawg
+    static BoardSearch syncedSearch(CrossCheckTable crossChecks, Rack rack, Lexicon dawg, MoveSink sink) {
+        if ( dawg.isGaddag() ) {
+            return new GaddagSearch(crossChecks, rack, dawg, sink);
+        }
+        return new AnchorSearch(crossChecks, rack, dawg, sink);
+    }
+
+    // The original search, every square is tried as a hook and words are walked from
+    // every starting square before it.  Kept to compare against, see TESTING.BoardFindallBenchmark
+    public static MovePackage boardFindallScan(Board board, Rack rack, Lexicon dawg) {
+        MovePackage wordList = new MovePackage();
+        boardFindallScan(board, rack, dawg, wordList);
+
+        return wordList;
+    }
+    public static void boardFindallScan(Board board, Rack rack, Lexicon dawg, MoveSink sink) {
         // If the board is emtpy, only find horizontal moves hooking onto 7,7
         if ( board.empty() ) {
-            boardFindallHorizontalMoves(board, rack, dawg, wordList, 7, 7);
-            return wordList;
+            boardFindallHorizontalMoves(board, rack, dawg, sink, 7, 7);
+            return;
         }
 
-        // Otherwise, find moves for every position
-        for (int row=0; row<board.Rows(); row++) {
-            for (int col=0; col<board.Columns(); col++) {
-                boardFindallVerticalMoves(board, rack, dawg, wordList, row, col);
-                boardFindallHorizontalMoves(board, rack, dawg, wordList, row, col);
-            }
+        // Otherwise, find moves for every hook until the sink has what it wants
+        for (int square=board.nextAnchor(0); square>=0 && ! sink.isDone(); square=board.nextAnchor(square+1)) {
+            int row = square / Board.MAX_COLUMNS;
+            int col = square % Board.MAX_COLUMNS;
+            boardFindallAtPosition(board, rack, dawg, sink, row, col);
         }
-        return wordList;
     }
     
     // Find every move that could be made at this positon on the board,
     // at this position, and return the list of words
-    public static MovePackage boardFindallAtPosition(Board board, Rack rack, Dawg dawg, int row, int col) {
+    public static MovePackage boardFindallAtPosition(Board board, Rack rack, Lexicon dawg, int row, int col) {
         MovePackage wordList = new MovePackage();
-
-        boardFindallVerticalMoves(board, rack, dawg, wordList, row, col);
-        boardFindallHorizontalMoves(board, rack, dawg, wordList, row, col);
+        boardFindallAtPosition(board, rack, dawg, wordList, row, col);
 
         return wordList;
     }
+    public static void boardFindallAtPosition(Board board, Rack rack, Lexicon dawg, MoveSink sink, int row, int col) {
+        boardFindallVerticalMoves(board, rack, dawg, sink, row, col);
+        boardFindallHorizontalMoves(board, rack, dawg, sink, row, col);
+    }
 
     // Find all possible starting positions and set up the recursive call for horizontal and vertical moves
-    public static void boardFindallVerticalMoves(Board board, Rack rack, Dawg dawg, MovePackage moveList, int row, int col) {
+    public static void boardFindallVerticalMoves(Board board, Rack rack, Lexicon dawg, MoveSink sink, int row, int col) {
         // Dont bother looking if this position isnt a hook
         if ( ! boardPositionIsValidHook(board, row, col) ) { return; }
 
@@ -163,21 +311,18 @@ public class WordPlay {
             row--;
         }
 
-        // Call recursive function for each cell from startingRow to row
+        // Search from each cell from startingRow to row
+        BoardScan scan = new BoardScan(board, rack, dawg, sink);
         while ( startingRow <= row ) {
             // Stop if we run into an occupied tile
             if ( board.tile(startingRow, col) != null && startingRow != row ) { break; }
 
-            AssistantRack findallRack = new AssistantRack(rack);
-            AssistantRack findallWordRack = new AssistantRack();
-            Move findallMove = new Move("", findallWordRack, findallRack, startingRow, col, Move.VERTICAL, 0, false);
-
-            boardFindallVerticalMovesAtPosition(board, findallRack, findallWordRack, dawg, dawg, row, moveList, findallMove);
+            scan.find(startingRow, col, Move.VERTICAL, row);
 
             startingRow++;
         }
     }
-    public static void boardFindallHorizontalMoves(Board board, Rack rack, Dawg dawg, MovePackage moveList, int row, int col) {
+    public static void boardFindallHorizontalMoves(Board board, Rack rack, Lexicon dawg, MoveSink sink, int row, int col) {
         // Dont bother looking if this position isnt a hook
         if ( ! boardPositionIsValidHook(board, row, col) ) { return; }
 
@@ -203,254 +348,31 @@ public class WordPlay {
             col--;
         }
 
-        // Call recursive function for each cell from startingRow to row
+        // Search from each cell from startingCol to col
+        BoardScan scan = new BoardScan(board, rack, dawg, sink);
         while ( startingCol <= col ) {
             // Stop if we run into an occupied tile
             if ( board.tile(row, startingCol) != null && startingCol != col) { break; }
 
-            AssistantRack findallRack = new AssistantRack(rack);
-            AssistantRack findallWordRack = new AssistantRack();
-            Move findallMove = new Move("", findallWordRack, findallRack, row, startingCol, Move.HORIZONTAL, 0, false);
-
-            boardFindallHorizontalMovesAtPosition(board, findallRack, findallWordRack, dawg, dawg, col, moveList, findallMove);
+            scan.find(row, startingCol, Move.HORIZONTAL, col);
 
             startingCol++;
         }
     }
 
-    // Recursively find words from row,col to hookCol,hookCol and beyond
-    // These routine are only intended to be used by boardFindallVerticalMoves and boardFindallHorizontalMoves
-    private static void boardFindallVerticalMovesAtPosition(Board board, AssistantRack rack, AssistantRack wordRack, Dawg dawg, Dawg node, int hookRow, MovePackage moveList, Move move) {
-        // Build a wordRack with our rack and this board
-        if ( wordRack == null ) { wordRack = new AssistantRack(); }
-
-        int currentRow = move.row()+move.wordPlayed().length();
-
-        // Current location on the board is not empty, advance vertically adding the values to the move
-        while( board.tile(currentRow, move.col()) != null ) {
-            node = node.child(board.tile(currentRow, move.col()).value());
-            if ( node == null ) { return; }
-
-            move = new Move(move.wordPlayed().concat(Character.toString(board.tile(currentRow, move.col()).value())), move.tilesPlayed(), move.tilesRemaining(), move.row(), move.col(), move.direction(), move.score(), false);
-            currentRow++;
-        }
-
-        // Dont go past the end of the board
-        if ( currentRow > Board.MAX_ROWS ) { return; }
-
-        // Determine if this position and word makes a valid word
-        if ( currentRow > hookRow ) {
-
-            // We actually have a play on this board, add it to the moveList
-            if ( node.isTerminal() ) {
-                // Create the final move and add it to the list
-                int boardScore = board.score(move.wordPlayed(), move.tilesPlayed(), move.row(), move.col(), move.direction());
-                Move finalMove;
-                if ( move.tilesPlayed().size() == Rack.MAX_TILES ) {
-                    finalMove = new Move(move.wordPlayed(), move.tilesPlayed(), move.tilesRemaining(), move.row(), move.col(), move.direction(), move.score()+boardScore, true);
-                } else {
-                    finalMove = new Move(move.wordPlayed(), move.tilesPlayed(), move.tilesRemaining(), move.row(), move.col(), move.direction(), move.score()+boardScore, false);
-                }
-                moveList.add(finalMove);
-            }
-        }
-
-        // Walk through the rack and build a word with the remaining tiles
-        for (int index=0; index<rack.size(); index++) {
-            if (rack.tile(index).isBlank()) {
-                // Tile is a blank, make it be every possible value
-                Dawg nextNode = node.child();
-                while ( nextNode != null ) {
-                    rack.tile(index).selectLetter(nextNode.value());
-
-                    int crosswordScore = boardValidCrossword(board, rack.tile(index), dawg, currentRow, move.col(), move.direction());
-
-                    // This didnt create a valid crossword, move to the next option
-                    if (crosswordScore < 0) {
-                        nextNode = nextNode.sibling();
-                        continue;
-                    }
-
-                    // Set up the recursive call here
-                    AssistantRack nextRack = new AssistantRack(rack);
-                    AssistantRack nextWordRack = new AssistantRack(wordRack);
-
-                    String nextWord = move.wordPlayed() + nextRack.tile(index).value();
-                    nextWordRack.add(nextRack.remove(index));
-
-                    // Only recurse if we dont move past the end of the board
-                    if (move.row() + nextWord.length() < Board.MAX_ROWS) {
-                        Move nextMove = new Move(nextWord, nextWordRack, nextRack, move.row(), move.col(), move.direction(), move.score() + crosswordScore, false);
-                        boardFindallVerticalMovesAtPosition(board, nextRack, nextWordRack, dawg, nextNode, hookRow, moveList, nextMove);
-                    }
-
-                    nextNode = nextNode.sibling();
-                }
-
-            } else {
-                // Tile is not a blank, simply add it to the move and see if it works
-                Dawg nextNode = node.child(rack.tile(index).value());
-                if (nextNode == null) {
-                    // Not a valid move, continue to the next tile
-                    continue;
-                }
-
-                int crosswordScore = boardValidCrossword(board, rack.tile(index), dawg, currentRow, move.col(), move.direction());
-
-                // This didnt create a valid crossword, move to the next option
-                if (crosswordScore < 0) {
-                    continue;
-                }
-
-                // Set up the recursive call here
-                AssistantRack nextRack = new AssistantRack(rack);
-                AssistantRack nextWordRack = new AssistantRack(wordRack);
-
-                String nextWord = move.wordPlayed() + nextRack.tile(index).value();
-                nextWordRack.add(nextRack.remove(index));
-
-                Move nextMove = new Move(nextWord, nextWordRack, nextRack, move.row(), move.col(), move.direction(), move.score() + crosswordScore, false);
-                boardFindallVerticalMovesAtPosition(board, nextRack, nextWordRack, dawg, nextNode, hookRow, moveList, nextMove);
-            }
-        }
-    }
-    private static void boardFindallHorizontalMovesAtPosition(Board board, AssistantRack rack, AssistantRack wordRack, Dawg dawg, Dawg node, int hookCol, MovePackage moveList, Move move) {
-        // Build a wordRack with our rack and this board
-        if ( wordRack == null ) { wordRack = new AssistantRack(); }
-
-        int currentCol = move.col()+move.wordPlayed().length();
-
-        // Current location on the board is not empty, advance horizontally adding the values to the move
-        while( board.tile(move.row(), currentCol) != null ) {
-            node = node.child(board.tile(move.row(), currentCol).value());
-            if ( node == null ) { return; }
-
-            move = new Move(move.wordPlayed().concat(Character.toString(board.tile(move.row(), currentCol).value())), move.tilesPlayed(), move.tilesRemaining(), move.row(), move.col(), move.direction(), move.score(), false);
-            currentCol++;
-        }
-
-        // Dont go past the end of the board
-        if ( currentCol > Board.MAX_COLUMNS ) { return; }
-
-        // Determine if this position and word makes a valid word
-        if ( currentCol > hookCol ) {
-            // We actually have a play on this board, add it to the moveList
-            if ( node.isTerminal() ) {
-                // Create the final move and add it to the list
-                int boardScore = board.score(move.wordPlayed(), move.tilesPlayed(), move.row(), move.col(), move.direction());
-                Move finalMove;
-                if ( move.tilesPlayed().size() == Rack.MAX_TILES ) {
-                    finalMove = new Move(move.wordPlayed(), move.tilesPlayed(), move.tilesRemaining(), move.row(), move.col(), move.direction(), move.score()+boardScore, true);
-                } else {
-                    finalMove = new Move(move.wordPlayed(), move.tilesPlayed(), move.tilesRemaining(), move.row(), move.col(), move.direction(), move.score()+boardScore, false);
-                }
-                moveList.add(finalMove);
-            }
-        }
-
-        // Walk through the rack and build a word with the remaining tiles
-        for (int index=0; index<rack.size(); index++) {
-            if (rack.tile(index).isBlank()) {
-                // Tile is a blank, make it be every possible value
-                Dawg nextNode = node.child();
-                while (nextNode != null) {
-                    rack.tile(index).selectLetter(nextNode.value());
-
-                    int crosswordScore = boardValidCrossword(board, rack.tile(index), dawg, move.row(), currentCol, move.direction());
-
-                    // This didnt create a valid crossword, move to the next option
-                    if (crosswordScore < 0) {
-                        nextNode = nextNode.sibling();
-                        continue;
-                    }
-
-                    // Set up the recursive call here
-                    AssistantRack nextRack = new AssistantRack(rack);
-                    AssistantRack nextWordRack = new AssistantRack(wordRack);
-
-                    String nextWord = move.wordPlayed() + nextRack.tile(index).value();
-                    nextWordRack.add(nextRack.remove(index));
-
-                    // Only recurse if we dont move past the end of the board
-                    if (move.col() + nextWord.length() < Board.MAX_COLUMNS) {
-                        Move nextMove = new Move(nextWord, nextWordRack, nextRack, move.row(), move.col(), move.direction(), move.score() + crosswordScore, false);
-                        boardFindallHorizontalMovesAtPosition(board, nextRack, nextWordRack, dawg, nextNode, hookCol, moveList, nextMove);
-                    }
-
-                    nextNode = nextNode.sibling();
-                }
-            } else {
-                // Tile is not a blank, simply add it to the move and see if it works
-                Dawg nextNode = node.child(rack.tile(index).value());
-                if (nextNode == null) {
-                    continue;
-                }
-
-                int crosswordScore = boardValidCrossword(board, rack.tile(index), dawg, move.row(), currentCol, move.direction());
-
-                // This didnt create a valid crossword, move to the next option
-                if (crosswordScore < 0) {
-                    continue;
-                }
-
-                // Set up the recursive call here
-                AssistantRack nextRack = new AssistantRack(rack);
-                AssistantRack nextWordRack = new AssistantRack(wordRack);
-
-                String nextWord = move.wordPlayed() + nextRack.tile(index).value();
-                nextWordRack.add(nextRack.remove(index));
-
-                Move nextMove = new Move(nextWord, nextWordRack, nextRack, move.row(), move.col(), move.direction(), move.score() + crosswordScore, false);
-                boardFindallHorizontalMovesAtPosition(board, nextRack, nextWordRack, dawg, nextNode, hookCol, moveList, nextMove);
-            }
-        }
-    }
-
-    // Determine if this position is a hook of any type
+    // Determine if this position is a hook of any type, the board keeps track of them
     public static boolean boardPositionIsValidHook(Board board, int row, int col) {
-        // If the board is empty, the only hook is 7,7
-        if ( board.empty() ) {
-            if ( row == 7 && col == 7 ) {
-                return true;
-            } else {
-                return false;
-            }
-        }
-
-        // Cant be a hook if the position is filled
-        if ( board.tile(row, col) != null ) {
-            return false;
-        }
-
-        // Hooking to a wordRack on the right side
-        if ( col < board.Columns()-1 && board.tile(row, col+1) != null ) {
-            return true;
-        }
-
-        // Hooking to a wordRack on the left side
-        if ( col > 0 && board.tile(row, col-1) != null ) {
-            return true;
-        }
-
-        // Hooking to a word on the bottom
-        if ( row < board.Rows() && board.tile(row+1, col) != null ) {
-            return true;
-        }
-
-        // Hooking to a word on the top
-        if ( row > 0 && board.tile(row-1, col) != null ) {
-            return true;
-        }
-
-        return false;
+        return board.isAnchor(row, col);
     }
 
     // Determine if this letter at this position makes a valid crossword, return the score of the crossword
-    private static int boardValidCrossword(Board board, Tile tile, Dawg dawg, int row, int col, int direction) {
+    private static int boardValidCrossword(Board board, Tile tile, Lexicon dawg, int row, int col, int direction) {
         // It doesnt make a crossword if this isnt a hook
         if ( ! boardPositionIsValidHook(board, row, col) ) { return 0; }
 
-        String word = new String();
+        // Crosswords are spelled into a buffer so only valid ones become strings
+        char[] word = new char[Board.MAX_ROWS];
+        int length;
         int score = 0;
 
         // Horizontal moves only make vertical crosswords
@@ -466,27 +388,27 @@ public class WordPlay {
             int endingRow = startingRow;
 
             // Then walk down the board
-            word = "";
+            length = 0;
             while (board.tile(endingRow, col) != null) {
-                word += board.tile(endingRow, col).value();
+                word[length++] = board.tile(endingRow, col).value();
                 endingRow++;
             }
 
             // Append the letter to the word we've creaed so far, then keep going down
-            word += tile.value();
+            word[length++] = tile.value();
             while (board.tile(endingRow + 1, col) != null) {
                 endingRow++;
-                word += board.tile(endingRow, col).value();
+                word[length++] = board.tile(endingRow, col).value();
             }
 
             // Determine if we created a valid word or not
-            if (word.length() > 1) {
-                if (!dawg.validWord(word)) {
+            if (length > 1) {
+                if (!dawg.validWord(word, 0, length)) {
                     return -1;
                 }
                 AssistantRack wordRack = new AssistantRack();
                 wordRack.add(tile);
-                score += board.score(word, wordRack, startingRow, startingCol, Move.VERTICAL);
+                score += board.score(new String(word, 0, length), wordRack, startingRow, startingCol, Move.VERTICAL);
             }
         }
 
@@ -504,34 +426,34 @@ public class WordPlay {
             int endingCol = startingCol;
 
             // Then walk the board right
-            word = "";
+            length = 0;
             while (board.tile(row, endingCol) != null) {
-                word += board.tile(row, endingCol).value();
+                word[length++] = board.tile(row, endingCol).value();
                 endingCol++;
             }
 
             // Append the letter to the word we've created so far, then keep going right
-            word += tile.value();
+            word[length++] = tile.value();
             while (board.tile(row, endingCol + 1) != null) {
                 endingCol++;
-                word += board.tile(row, endingCol).value();
+                word[length++] = board.tile(row, endingCol).value();
             }
 
             // Determine if we created a valid word or not
-            if (word.length() > 1) {
-                if (!dawg.validWord(word)) {
+            if (length > 1) {
+                if (!dawg.validWord(word, 0, length)) {
                     return -1;
                 }
                 AssistantRack wordRack = new AssistantRack();
                 wordRack.add(tile);
-                score += board.score(word, wordRack, startingRow, startingCol, Move.HORIZONTAL);
+                score += board.score(new String(word, 0, length), wordRack, startingRow, startingCol, Move.HORIZONTAL);
             }
         }
         return score;
     }
 
     // This makes a move from a staged play on the board
-    public static Move boardMakeMove(Board board, Dawg dawg) {
+    public static Move boardMakeMove(Board board, Lexicon dawg) {
         // If this is a rackboard call the special routine instead
         if ( board instanceof RackBoard ) {
             return rackBoardMakeMove(board);
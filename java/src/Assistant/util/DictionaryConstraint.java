@@ -19,53 +19,98 @@
 
 package Assistant.util;
 
-import Game.*;
+import java.nio.*;
+import java.util.regex.*;
 
-// Set of constraints used by Dawg and Gaddag objects to filter out words
+// Set of constraints used to filter out words.  Constraints never change once
+// made, so one can be shared by any number of queries against any dictionary
 public class DictionaryConstraint {
-    private String regexExpression;
-    private String containsLetters;
+    // No constraint at all, every word passes
+    public static final DictionaryConstraint NONE = new DictionaryConstraint();
 
-    private int exactLetters = -1;
-    private int maxLetters = -1;
-    private int minLetters = -1;
+    private final String regexExpression;
+    private final String containsLetters;
+
+    private final int exactLetters;
+    private final int maxLetters;
+    private final int minLetters;
+
+    // Everything above compiled once for validate(), the regex is null if there isnt one
+    private final Pattern regexPattern;
+    private final char[] requiredLetters;
+    private final int[] requiredCounts;
+    private final int minLength;
+    private final int maxLength;
 
     public DictionaryConstraint() {
-        regexExpression = new String();
-        containsLetters = new String();
+        this("", "", -1, -1, -1);
     }
+    public DictionaryConstraint(String initRegexExpression, String initContainsLetters, int initExactLetters, int initMaxLetters, int initMinLetters) {
+        regexExpression = initRegexExpression;
+        containsLetters = initContainsLetters;
+
+        exactLetters = initExactLetters;
+        maxLetters = initMaxLetters;
+        minLetters = initMinLetters;
 
-    public void reset() {
-        regexExpression = "";
-        containsLetters = "";
+        regexPattern = regexExpression.isEmpty() ? null : Pattern.compile(regexExpression);
 
-        exactLetters = -1;
-        maxLetters = -1;
-        minLetters = -1;
+        // Count each required letter, blanks can be any letter so they only count towards length
+        int[] counts = new int[26];
+        int distinct = 0;
+        for (int index=0; index<containsLetters.length(); index++) {
+            char letter = containsLetters.charAt(index);
+            if ( letter < 'A' || letter > 'Z' ) { continue; }
+
+            if ( counts[letter - 'A']++ == 0 ) { distinct++; }
+        }
+        requiredLetters = new char[distinct];
+        requiredCounts = new int[distinct];
+        for (int letter=0, index=0; letter<counts.length; letter++) {
+            if ( counts[letter] == 0 ) { continue; }
+
+            requiredLetters[index] = (char) ('A' + letter);
+            requiredCounts[index] = counts[letter];
+            index++;
+        }
+
+        // Fold every length rule into one range
+        int shortest = containsLetters.length();
+        int longest = Integer.MAX_VALUE;
+        if ( minLetters > 0 ) { shortest = Math.max(shortest, minLetters); }
+        if ( maxLetters > 0 ) { longest = maxLetters; }
+        if ( exactLetters > 0 ) {
+            shortest = Math.max(shortest, exactLetters);
+            longest = Math.min(longest, exactLetters);
+        }
+        minLength = shortest;
+        maxLength = longest;
     }
 
-    // Create a regex that each word must match
-    public void setRegex (String initRegexExpression) {
-        regexExpression = initRegexExpression;
+    // Copy of this constraint where each word must match a regex
+    public DictionaryConstraint withRegex (String initRegexExpression) {
+        return new DictionaryConstraint(initRegexExpression, containsLetters, exactLetters, maxLetters, minLetters);
     }
 
-    // Each word must contaion at least these letters
-    public void setContainsLetters (String initContainsLetters) {
-        containsLetters = initContainsLetters;
+    // Copy of this constraint where each word must contaion at least these letters
+    public DictionaryConstraint withContainsLetters (String initContainsLetters) {
+        return new DictionaryConstraint(regexExpression, initContainsLetters, exactLetters, maxLetters, minLetters);
     }
 
-    // Each word must have exactly these letters
-    public void setExactLetters (int initExactLetters) {
-        exactLetters = initExactLetters;
+    // Copy of this constraint where each word must have exactly this many letters
+    public DictionaryConstraint withExactLetters (int initExactLetters) {
+        return new DictionaryConstraint(regexExpression, containsLetters, initExactLetters, maxLetters, minLetters);
     }
 
-    // Set an upper and lower limit to the words we'll allow
-    public void setMaxLetters (int initMaxLetters) {
-        maxLetters = initMaxLetters;
-        if ( maxLetters < minLetters ) { minLetters = maxLetters; }
+    // Copies of this constraint with an upper or lower limit to the words we'll allow
+    public DictionaryConstraint withMaxLetters (int initMaxLetters) {
+        int initMinLetters = minLetters;
+        if ( initMaxLetters < initMinLetters ) { initMinLetters = initMaxLetters; }
+
+        return new DictionaryConstraint(regexExpression, containsLetters, exactLetters, initMaxLetters, initMinLetters);
     }
-    public void setMinLetters (int initMinLetters) {
-        minLetters = initMinLetters;
+    public DictionaryConstraint withMinLetters (int initMinLetters) {
+        return new DictionaryConstraint(regexExpression, containsLetters, exactLetters, maxLetters, initMinLetters);
     }
 
     public String getRegex() { return regexExpression; }
@@ -74,38 +119,60 @@ public class DictionaryConstraint {
     public int getMaxLetters() { return maxLetters; }
     public int getMinLetters() { return minLetters; }
 
-    // Validate should be called by the Dawg or Gaddag object validWord() routines
-    public boolean validate(String word) {
-        if ( ! validateRegexExpression(word) || ! validateContainsLetters(word) ) {
-            return false;
-        }
+    // Length range a word has to fall in, maxLength() is Integer.MAX_VALUE if there is no limit
+    public int minLength() { return minLength; }
+    public int maxLength() { return maxLength; }
 
-        if ( exactLetters > 0 ) {
-            if ( word.length() != exactLetters ) { return false; }
-        }
-        if ( maxLetters > 0 && word.length() > maxLetters ) {
-            return false;
+    // True if every word passes
+    public boolean isEmpty() {
+        return regexPattern == null && containsLetters.isEmpty() && minLength == 0 && maxLength == Integer.MAX_VALUE;
+    }
+
+    // How many required letters are still missing from a word with these letter counts,
+    // indexed 'A' through 'Z'.  Word finders use this to drop tile sets before spelling
+    // anything with them, each blank in the set can make up for one missing letter
+    public int missingLetters(int[] letterCounts) {
+        int missing = 0;
+        for (int index=0; index<requiredLetters.length; index++) {
+            int count = letterCounts[requiredLetters[index] - 'A'];
+            if ( count < requiredCounts[index] ) { missing += requiredCounts[index] - count; }
         }
-        if ( minLetters > 0 && word.length() < minLetters ) {
-            return false;
+        return missing;
+    }
+
+    // Validate is called by the dictionary validWord() routines and the word finders
+    public boolean validate(CharSequence word) {
+        if ( word.length() < minLength || word.length() > maxLength ) { return false; }
+
+        for (int index=0; index<requiredLetters.length; index++) {
+            if ( count(word, requiredLetters[index]) < requiredCounts[index] ) { return false; }
         }
-        return true;
+
+        return regexPattern == null || regexPattern.matcher(word).matches();
     }
-    private boolean validateRegexExpression(String word) {
-        if ( regexExpression.isEmpty() ) {
-            return true;
+    public boolean validate(char[] word, int offset, int length) {
+        if ( length < minLength || length > maxLength ) { return false; }
+
+        for (int index=0; index<requiredLetters.length; index++) {
+            if ( count(word, offset, length, requiredLetters[index]) < requiredCounts[index] ) { return false; }
         }
 
-        return word.matches(regexExpression);
+        // Only a regex needs the word wrapped up as a CharSequence
+        return regexPattern == null || regexPattern.matcher(CharBuffer.wrap(word, offset, length)).matches();
     }
-    private boolean validateContainsLetters(String word) {
-        if ( word.length() < containsLetters.length() ) { return false; }
 
-        for (char letter : containsLetters.toCharArray() ) {
-            if ( ! word.contains(Character.toString(letter)) && letter != Tile.BLANK ) {
-                return false;
-            }
+    private static int count(CharSequence word, char letter) {
+        int count = 0;
+        for (int index=0; index<word.length(); index++) {
+            if ( word.charAt(index) == letter ) { count++; }
+        }
+        return count;
+    }
+    private static int count(char[] word, int offset, int length, char letter) {
+        int count = 0;
+        for (int index=offset; index<offset+length; index++) {
+            if ( word[index] == letter ) { count++; }
         }
-        return true;
+        return count;
     }
 }
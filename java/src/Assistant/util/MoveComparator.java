@@ -22,11 +22,26 @@ package Assistant.util;
 import Game.*;
 import java.util.*;
 
-// Compares two move objects for sorting purposes
+// Compares two move objects for sorting purposes, lowest score first.  Moves that tie
+// on score are ordered by position, direction, word and tiles played, so they always
+// sort the same way
 public class MoveComparator implements Comparator<Move> {
 
     public int compare(Move o1, Move o2) {
-        return o1.score() - o2.score();
+        if ( o1.score() != o2.score() ) { return o1.score() < o2.score() ? -1 : 1; }
+        if ( o1.row() != o2.row() ) { return o1.row() > o2.row() ? -1 : 1; }
+        if ( o1.col() != o2.col() ) { return o1.col() > o2.col() ? -1 : 1; }
+        if ( o1.direction() != o2.direction() ) { return o1.direction() > o2.direction() ? -1 : 1; }
+
+        int word = o2.wordPlayed().compareTo(o1.wordPlayed());
+        if ( word != 0 ) { return word; }
+
+        // Only blanks can tell the same word in the same place apart
+        int tiles = Math.min(o1.tilesPlayed().size(), o2.tilesPlayed().size());
+        for (int index=0; index<tiles; index++) {
+            if ( o1.tileCode(index) != o2.tileCode(index) ) { return o1.tileCode(index) < o2.tileCode(index) ? -1 : 1; }
+        }
+        return o1.tilesPlayed().size() - o2.tilesPlayed().size();
     }
 
 }
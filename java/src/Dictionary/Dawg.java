@@ -22,79 +22,87 @@ package Dictionary;
 import Assistant.util.*;
 import Data.*;
 import java.io.*;
+import java.nio.*;
 import java.util.logging.*;
-import javax.swing.*;
 
 // Dawg structure stores our dictionary
 public class Dawg extends Node<Dawg> {
-    private DictionaryConstraint constraint;
-
     public Dawg() { super(); }
     public Dawg(final InputStream is) {
-        constraint = new DictionaryConstraint();
+        try {
+            init(is, null);
+        } catch (IOException ex) {
+            Logger.getLogger(Dawg.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
 
-        init(is);
+    // Used by DictionaryLoader, which wants to hear about failures
+    Dawg(final InputStream is, LoadListener listener) throws IOException {
+        init(is, listener);
     }
 
-    // This could be less elaborate, but when loading large files its helpfull to
-    // have a progress bar
-    protected void init(final InputStream is) {
-
-        // Not really sure how else to access myself from inside the thread
-        final Dawg thisDawg = this;
-        Thread thread = new Thread() {
-            @Override
-            public void run() {
-                // Show a progress bar while we load the file
-                Object message[] = { "Reading Dictionary" };
-                ProgressMonitorInputStream pm = new ProgressMonitorInputStream(null, message, is);
-                final LittleEndianInputStream in = new LittleEndianInputStream(pm);
-
-                // Read in the first integer, which should be the count of nodes in the file
-                int count = 0;
-                try {
-                    count = in.readInt();
-                } catch (IOException ex) {
-                    Logger.getLogger(Dawg.class.getName()).log(Level.SEVERE, null, ex);
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-
-                // Create a list of nodes to reference later
-                Dawg[] nodeList = new Dawg[count + 1];
-                nodeList[0] = null;
-                nodeList[1] = thisDawg;
-                int i;
-                for (i = 2; i <= count; i++) {
-                    nodeList[i] = new Dawg();
-                    
-                    // Force everyone to use the same constraint
-                    nodeList[i].constraint = thisDawg.constraint;
-                }
-
-                // Read in each node from the file, exit on failure
-                for (i = 1; i <= count; i++) {
-                    try {
-                        nodeList[i].value(((char) in.readByte()));
-                        nodeList[i].sibling(nodeList[in.readInt()]);
-                        nodeList[i].child(nodeList[in.readInt()]);
-                        int bool = in.readInt();
-                        if (bool > 0) {
-                            nodeList[i].terminal(true);
-                        }
-                    } catch (IOException ex) {
-                        Logger.getLogger(Dawg.class.getName()).log(Level.SEVERE, null, ex);
-                        Thread.currentThread().interrupt();
-                        return;
-                    }
-                }
+    // Progress is reported to the listener if there is one, see DictionaryLoader
+    protected void init(final InputStream is, LoadListener listener) throws IOException {
+        final LittleEndianInputStream in = new LittleEndianInputStream(ProgressInputStream.wrap(is, listener));
+
+        // Read in the first integer, which should be the count of nodes in the file
+        int count = in.readInt();
+        if ( count == DawgFormat.MAGIC ) {
+            initCompact(DawgFormat.read(in));
+            return;
+        }
+        if ( count < 1 ) { return; }
+
+        // Create a list of nodes to reference later
+        Dawg[] nodeList = new Dawg[count + 1];
+        nodeList[0] = null;
+        nodeList[1] = this;
+        int i;
+        for (i = 2; i <= count; i++) {
+            nodeList[i] = new Dawg();
+        }
+
+        // Read in each node from the file
+        for (i = 1; i <= count; i++) {
+            nodeList[i].value(((char) in.readByte()));
+            nodeList[i].sibling(nodeList[in.readInt()]);
+            nodeList[i].child(nodeList[in.readInt()]);
+            int bool = in.readInt();
+            if (bool != 0) {
+                nodeList[i].terminal(true);
+            }
+        }
+    }
+
+    // Version 2 records point at their child, siblings are simply the next record
+    private void initCompact(ByteBuffer file) throws IOException {
+        int count = DawgFormat.count(file);
+        if ( count < 1 ) { return; }
+
+        byte[] alphabet = DawgFormat.alphabet(file);
+        Dawg[] nodeList = new Dawg[count + 2];
+        nodeList[1] = this;
+        for (int i = 2; i <= count; i++) {
+            nodeList[i] = new Dawg();
+        }
+
+        int offset = DawgFormat.offset(file, 1);
+        for (int i = 1; i <= count; i++) {
+            int record = file.getInt(offset + (i - 1) * 4);
+            int letter = record >>> DawgFormat.LETTER_SHIFT;
+            int child = record & DawgFormat.CHILD_MASK;
+            if ( letter >= alphabet.length || child > count ) {
+                throw new IOException("Corrupt dictionary node "+i);
+            }
+
+            nodeList[i].value((char) (alphabet[letter] & 0xFF));
+            if ( (record & DawgFormat.LAST_SIBLING) == 0 && i > 1 ) {
+                nodeList[i].sibling(nodeList[i + 1]);
+            }
+            nodeList[i].child(nodeList[child]);
+            if ( (record & DawgFormat.TERMINAL) != 0 ) {
+                nodeList[i].terminal(true);
             }
-        };
-        try {
-            thread.start();
-            thread.join();
-        } catch (InterruptedException ex) {
-            Logger.getLogger(Dawg.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
 
@@ -116,14 +124,32 @@ public class Dawg extends Node<Dawg> {
         }
     }
 
-    public DictionaryConstraint getConstraint() { return constraint; }
+    // Determine if a word exists in this structure, walking it without allocating anything
+    public boolean validWord (CharSequence word) {
+        Dawg node = this;
+        for (int index=0; index<word.length() && node != null; index++) {
+            node = node.child(word.charAt(index));
+        }
 
-    // Determine if a word exists in this structure
-    public boolean validWord (String word) {
-        if ( ! constraint.validate(word) ) { return false; }
+        return node != null && node.isTerminal();
+    }
+    public boolean validWord (char[] word, int offset, int length) {
+        Dawg node = this;
+        for (int index=offset; index<offset+length && node != null; index++) {
+            node = node.child(word[index]);
+        }
 
-        return validWordRecurse(word);
+        return node != null && node.isTerminal();
     }
+
+    // Same as above, but the word must also satisfy the constraint given
+    public boolean validWord (CharSequence word, DictionaryConstraint constraint) {
+        return constraint.validate(word) && validWord(word);
+    }
+    public boolean validWord (char[] word, int offset, int length, DictionaryConstraint constraint) {
+        return constraint.validate(word, offset, length) && validWord(word, offset, length);
+    }
+
     public boolean validWordRecurse (String word) {
         // Recursively determine if this word is valid
 
@@ -0,0 +1,204 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Dictionary;
+
+import java.io.*;
+import java.nio.*;
+import java.util.zip.*;
+
+// The two layouts a .dawg or .gaddag file can have.
+//
+// Version 1 is what makedawg writes: a node count, then a 13 byte record per node
+// of value, sibling uid, child uid and terminal, numbered in whatever order the
+// tool happened to visit them.
+//
+// Version 2 starts with a header of the magic number, the version, the node count,
+// a CRC32 of everything after the header, and the alphabet.  Each node is then one
+// 32 bit record of letter, terminal, last sibling and child index.  Nodes are
+// numbered the way FlatDawg lays them out in memory: every list of children is one
+// run sorted by letter, a node's siblings being the records after it, and the runs
+// go breadth first so the busy top levels share the first pages of the file.
+//
+// Every loader reads both, telling them apart by the first four bytes
+public class DawgFormat {
+    // "WDWG" read as a little endian int, far more nodes than any version 1 file holds
+    public static final int MAGIC = 0x47574457;
+    public static final int VERSION = 2;
+
+    // Magic, version, count, CRC and alphabet length, the alphabet follows padded to 4 bytes
+    static final int HEADER_SIZE = 20;
+
+    // Layout of a version 2 record
+    static final int CHILD_MASK = 0xFFFFFF;
+    static final int TERMINAL = 1 << 24;
+    static final int LAST_SIBLING = 1 << 25;
+    static final int LETTER_SHIFT = 26;
+
+    public static final int MAX_NODES = CHILD_MASK;
+    public static final int MAX_LETTERS = 1 << (32 - LETTER_SHIFT);
+
+    // Write a dictionary as version 2.  FlatDawg's node numbers are already the
+    // version 2 order, so they go out as they are
+    public static void write(FlatDawg dawg, OutputStream os) throws IOException {
+        if ( dawg instanceof MultiLexicon ) {
+            throw new IOException("Sub-list membership only fits the version 1 format");
+        }
+
+        int count = dawg.size();
+        if ( count > MAX_NODES ) {
+            throw new IOException("Too many nodes for the version 2 format: "+count);
+        }
+
+        // Alphabet in byte order, each letter's index is what the records hold
+        boolean[] used = new boolean[256];
+        for (int node=1; node<=count; node++) {
+            used[dawg.value(node) & 0xFF] = true;
+        }
+        byte[] alphabet = new byte[256];
+        int[] indexes = new int[256];
+        int letters = 0;
+        for (int value=0; value<256; value++) {
+            if ( !used[value] ) { continue; }
+            if ( letters == MAX_LETTERS ) {
+                throw new IOException("Too many letters for the version 2 format");
+            }
+            indexes[value] = letters;
+            alphabet[letters++] = (byte) value;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + padded(letters) + count * 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(HEADER_SIZE);
+        buffer.put(alphabet, 0, letters);
+        buffer.position(HEADER_SIZE + padded(letters));
+        for (int node=1; node<=count; node++) {
+            int record = dawg.child(node) | indexes[dawg.value(node) & 0xFF] << LETTER_SHIFT;
+            if ( dawg.isTerminal(node) ) { record |= TERMINAL; }
+            if ( dawg.sibling(node) == Lexicon.NONE ) { record |= LAST_SIBLING; }
+            buffer.putInt(record);
+        }
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, count);
+        buffer.putInt(16, letters);
+        buffer.putInt(12, crc(buffer));
+
+        os.write(buffer.array());
+        os.flush();
+    }
+
+    // Read the rest of a version 2 file whose magic number was just read off the stream.
+    // The whole file comes back checked, laid out as it is on disk
+    static ByteBuffer read(DataInput in) throws IOException {
+        int version = in.readInt();
+        int count = in.readInt();
+        int crc = in.readInt();
+        int letters = in.readInt();
+        if ( version != VERSION ) {
+            throw new IOException("Unsupported dictionary version: "+version);
+        }
+        if ( count < 0 || count > MAX_NODES || letters < 0 || letters > MAX_LETTERS ) {
+            throw new IOException("Corrupt dictionary header");
+        }
+
+        ByteBuffer file = ByteBuffer.allocate(HEADER_SIZE + padded(letters) + count * 4).order(ByteOrder.LITTLE_ENDIAN);
+        file.putInt(MAGIC).putInt(version).putInt(count).putInt(crc).putInt(letters);
+        in.readFully(file.array(), HEADER_SIZE, file.capacity() - HEADER_SIZE);
+
+        check(file);
+        return file;
+    }
+
+    // Make sure a version 2 file in a little endian buffer is whole and undamaged
+    static void check(ByteBuffer file) throws IOException {
+        if ( file.capacity() < HEADER_SIZE || file.getInt(0) != MAGIC ) {
+            throw new IOException("Not a version 2 dictionary");
+        }
+        if ( file.getInt(4) != VERSION ) {
+            throw new IOException("Unsupported dictionary version: "+file.getInt(4));
+        }
+
+        int count = file.getInt(8);
+        int letters = file.getInt(16);
+        if ( count < 0 || count > MAX_NODES || letters < 0 || letters > MAX_LETTERS
+                || (long) HEADER_SIZE + padded(letters) + (long) count * 4 > file.capacity() ) {
+            throw new IOException("Truncated dictionary file");
+        }
+        if ( crc(file) != file.getInt(12) ) {
+            throw new IOException("Dictionary file fails its checksum");
+        }
+    }
+
+    static int count(ByteBuffer file) { return file.getInt(8); }
+
+    static byte[] alphabet(ByteBuffer file) {
+        byte[] alphabet = new byte[file.getInt(16)];
+        for (int index=0; index<alphabet.length; index++) {
+            alphabet[index] = file.get(HEADER_SIZE + index);
+        }
+        return alphabet;
+    }
+
+    // Position of the record for this node, nodes start at 1
+    static int offset(ByteBuffer file, int node) {
+        return HEADER_SIZE + padded(file.getInt(16)) + (node - 1) * 4;
+    }
+
+    private static int padded(int letters) {
+        return (letters + 3) & ~3;
+    }
+
+    // Everything after the header, up to the last record
+    private static int crc(ByteBuffer file) {
+        int end = HEADER_SIZE + padded(file.getInt(16)) + file.getInt(8) * 4;
+        ByteBuffer covered = file.duplicate();
+        covered.position(HEADER_SIZE);
+        covered.limit(end);
+
+        CRC32 crc = new CRC32();
+        crc.update(covered);
+        return (int) crc.getValue();
+    }
+
+    // Convert a dictionary file of either version to version 2
+    public static void main(String args[]) throws IOException {
+        if ( args.length < 2 ) {
+            System.err.println("Usage: DawgFormat <input.dawg> <output.dawg>");
+            System.exit(1);
+        }
+
+        FlatDawg dawg = new FlatDawg();
+        InputStream is = new FileInputStream(args[0]);
+        try {
+            dawg.init(is, null);
+        } finally {
+            is.close();
+        }
+
+        OutputStream os = new BufferedOutputStream(new FileOutputStream(args[1]));
+        try {
+            write(dawg, os);
+        } finally {
+            os.close();
+        }
+
+        System.out.println(args[1]+": "+dawg.size()+" nodes, "+new File(args[0]).length()+" bytes down to "+new File(args[1]).length());
+    }
+}
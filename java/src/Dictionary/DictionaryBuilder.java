@@ -0,0 +1,363 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Dictionary;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+// Build a minimal DAWG straight from a sorted word list, the incremental way
+// Daciuk, Mihov, Watson and Watson describe.  Once a word is added, everything
+// below the point where the next word parts from it is final, so those states
+// are swapped for an equal one already in the register or registered themselves.
+// Nothing but the path of the last word is ever left unminimized.
+//
+// Words are upper cased like makedawg does.  They must come in sorted order,
+// a repeat of the last word is ignored.
+public class DictionaryBuilder {
+    // Same record layout as the legacy .dawg files FlatDawg reads
+    private static final int RECORD_SIZE = 13;
+
+    // One state of the automaton, its transitions kept in letter order.  Two states
+    // are equal if they are both terminal or not and go to the very same states
+    // on the same letters, which is all the register needs once the states below
+    // them are minimal
+    private static class State {
+        boolean terminal;
+        char[] letters = new char[0];
+        State[] next = new State[0];
+        int count;
+
+        // Written out, states differing only in being terminal have the same records,
+        // that flag going in the record leading to them.  same is the state whose
+        // records stand for this one's, block the uid of the first of them
+        State same;
+        int id;
+        int block;
+
+        State last() { return next[count-1]; }
+
+        State add(char letter) {
+            if ( count == letters.length ) {
+                letters = Arrays.copyOf(letters, Math.max(2, count * 2));
+                next = Arrays.copyOf(next, letters.length);
+            }
+            State state = new State();
+            letters[count] = letter;
+            next[count] = state;
+            count++;
+            return state;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            State other = (State) object;
+            if ( terminal != other.terminal || count != other.count ) { return false; }
+            for (int index=0; index<count; index++) {
+                if ( letters[index] != other.letters[index] || next[index] != other.next[index] ) { return false; }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = terminal ? 1 : 0;
+            for (int index=0; index<count; index++) {
+                hash = hash * 31 + letters[index];
+                hash = hash * 31 + System.identityHashCode(next[index]);
+            }
+            return hash;
+        }
+    }
+
+    private State root;
+    private HashMap<State, State> register;
+    private String previous;
+    private int words;
+    private boolean finished;
+    private ArrayList<State> numbered;
+
+    public DictionaryBuilder() {
+        root = new State();
+        register = new HashMap<State, State>();
+        previous = "";
+        words = 0;
+        finished = false;
+    }
+
+    public int wordCount() { return words; }
+
+    public void add(CharSequence initWord) {
+        if ( finished ) {
+            throw new IllegalStateException("Dictionary already built");
+        }
+
+        String word = initWord.toString().toUpperCase();
+        if ( word.length() == 0 ) {
+            throw new IllegalArgumentException("Empty word");
+        }
+        for (int index=0; index<word.length(); index++) {
+            if ( word.charAt(index) > 0xFF ) {
+                throw new IllegalArgumentException("Letters must fit in a byte: "+word);
+            }
+        }
+
+        int order = word.compareTo(previous);
+        if ( order == 0 ) { return; }
+        if ( order < 0 ) {
+            throw new IllegalArgumentException("Words must be added in sorted order: "+word+" after "+previous);
+        }
+
+        // Follow the part this word has in common with the last one
+        int prefix = 0;
+        State state = root;
+        while ( prefix < previous.length() && prefix < word.length() && previous.charAt(prefix) == word.charAt(prefix) ) {
+            state = state.last();
+            prefix++;
+        }
+
+        // The rest of the last word can no longer change
+        if ( state.count > 0 ) {
+            minimize(state);
+        }
+
+        for (int index=prefix; index<word.length(); index++) {
+            state = state.add(word.charAt(index));
+        }
+        state.terminal = true;
+
+        previous = word;
+        words++;
+    }
+
+    // Add every line of a word list, blank lines are skipped
+    public void addAll(BufferedReader reader) throws IOException {
+        String line;
+        while ( (line = reader.readLine()) != null ) {
+            line = line.trim();
+            if ( line.length() > 0 ) {
+                add(line);
+            }
+        }
+    }
+
+    // Replace the last child of state, and everything on the path below it, with
+    // the registered equivalent
+    private void minimize(State state) {
+        State child = state.last();
+        if ( child.count > 0 ) {
+            minimize(child);
+        }
+
+        State known = register.get(child);
+        if ( known == null ) {
+            register.put(child, child);
+        } else {
+            state.next[state.count-1] = known;
+        }
+    }
+
+    private void finish() {
+        if ( finished ) { return; }
+
+        if ( root.count > 0 ) {
+            minimize(root);
+        }
+        register = null;
+        finished = true;
+    }
+
+    // Number the states breadth first, each state's transitions becoming a run of
+    // records after the root's own record at uid 1.  Returns the states in order
+    private ArrayList<State> number() {
+        finish();
+        if ( numbered != null ) { return numbered; }
+
+        ArrayList<State> states = new ArrayList<State>();
+        if ( root.count > 0 ) {
+            states.add(same(root, new HashMap<String, State>()));
+        }
+        int uid = 1;
+        for (int index=0; index<states.size(); index++) {
+            State state = states.get(index);
+            state.block = uid + 1;
+            uid += state.count;
+
+            for (int letter=0; letter<state.count; letter++) {
+                State next = state.next[letter].same;
+                // Marked as queued until its turn comes
+                if ( next.count > 0 && next.block == 0 ) {
+                    next.block = -1;
+                    states.add(next);
+                }
+            }
+        }
+
+        numbered = states;
+        return states;
+    }
+
+    // Find the state whose records stand for this one's, the register having
+    // only merged states that agree on being terminal
+    private State same(State state, HashMap<String, State> blocks) {
+        if ( state.same != null ) { return state.same; }
+
+        StringBuilder key = new StringBuilder();
+        for (int letter=0; letter<state.count; letter++) {
+            State next = state.next[letter];
+            key.append(state.letters[letter]).append(next.terminal ? '1' : '0').append(same(next, blocks).id).append(' ');
+        }
+
+        State known = blocks.get(key.toString());
+        if ( known == null ) {
+            known = state;
+            known.id = blocks.size() + 1;
+            blocks.put(key.toString(), known);
+        }
+        state.same = known;
+
+        return known;
+    }
+
+    // Count of records in the legacy format, the root's included
+    public int nodeCount() {
+        return nodeCount(number());
+    }
+    private static int nodeCount(ArrayList<State> states) {
+        if ( states.isEmpty() ) { return 1; }
+
+        State last = states.get(states.size()-1);
+        return last.block + last.count - 1;
+    }
+
+    // Write the legacy .dawg format makedawg writes: a count, then little endian records
+    // of value byte, sibling uid, child uid and terminal flag, uid 1 being the root
+    public void write(OutputStream os) throws IOException {
+        ArrayList<State> states = number();
+        int count = nodeCount(states);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + count * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(count);
+
+        // Same root record makedawg writes
+        buffer.put((byte) '@');
+        buffer.putInt(Lexicon.NONE);
+        buffer.putInt(root.count > 0 ? root.same.block : Lexicon.NONE);
+        buffer.putInt(0);
+
+        for (int index=0; index<states.size(); index++) {
+            State state = states.get(index);
+            for (int letter=0; letter<state.count; letter++) {
+                State next = state.next[letter];
+                buffer.put((byte) state.letters[letter]);
+                buffer.putInt(letter < state.count-1 ? state.block + letter + 1 : Lexicon.NONE);
+                buffer.putInt(next.count > 0 ? next.same.block : Lexicon.NONE);
+                buffer.putInt(next.terminal ? 1 : 0);
+            }
+        }
+
+        os.write(buffer.array());
+        os.flush();
+    }
+
+    // The words as a Dawg, sharing nodes the same way the written file does
+    public Dawg dawg() {
+        ArrayList<State> states = number();
+        Dawg[] nodes = new Dawg[nodeCount(states) + 1];
+
+        Dawg dawg = new Dawg();
+        dawg.value('@');
+        nodes[1] = dawg;
+        for (int uid=2; uid<nodes.length; uid++) {
+            nodes[uid] = new Dawg();
+        }
+
+        dawg.child(root.count > 0 ? nodes[root.same.block] : null);
+        for (int index=0; index<states.size(); index++) {
+            State state = states.get(index);
+            for (int letter=0; letter<state.count; letter++) {
+                State next = state.next[letter];
+                Dawg node = nodes[state.block + letter];
+                node.value(state.letters[letter]);
+                node.sibling(letter < state.count-1 ? nodes[state.block + letter + 1] : null);
+                node.child(next.count > 0 ? nodes[next.same.block] : null);
+                node.terminal(next.terminal);
+            }
+        }
+
+        return dawg;
+    }
+
+    // The words as a FlatDawg, read back from the legacy format so it is laid out
+    // exactly as if it had come from a file
+    public FlatDawg flatDawg() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(bytes);
+            FlatDawg dawg = new FlatDawg();
+            dawg.init(new ByteArrayInputStream(bytes.toByteArray()), null);
+            return dawg;
+        } catch (IOException ex) {
+            // Byte arrays do not fail
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Build a .dawg file from a word list, like makedawg.  The list is sorted first,
+    // so it can come in any order
+    public static void main(String args[]) throws IOException {
+        if ( args.length < 1 ) {
+            System.err.println("Usage: DictionaryBuilder <words.txt> [output.dawg]");
+            System.exit(1);
+        }
+
+        String output = args.length > 1 ? args[1] : args[0].replaceFirst("\\.[^./]*$", "") + ".dawg";
+
+        long start = System.currentTimeMillis();
+        ArrayList<String> words = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new FileReader(args[0]));
+        try {
+            String line;
+            while ( (line = reader.readLine()) != null ) {
+                line = line.trim().toUpperCase();
+                if ( line.length() > 0 ) {
+                    words.add(line);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        Collections.sort(words);
+
+        DictionaryBuilder builder = new DictionaryBuilder();
+        for (int index=0; index<words.size(); index++) {
+            builder.add(words.get(index));
+        }
+
+        OutputStream os = new BufferedOutputStream(new FileOutputStream(output));
+        try {
+            builder.write(os);
+        } finally {
+            os.close();
+        }
+
+        System.out.println(output+": "+builder.wordCount()+" words, "+builder.nodeCount()+" nodes in "+(System.currentTimeMillis() - start)+" ms");
+    }
+}
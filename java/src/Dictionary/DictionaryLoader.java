@@ -0,0 +1,109 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Dictionary;
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+// Load dictionaries in the background.  Nothing here touches AWT, so it is safe
+// to use from a headless JVM, and several dictionaries can be loading at once.
+// A failed load completes the future exceptionally with the IOException.
+public class DictionaryLoader {
+
+    public static CompletableFuture<FlatDawg> loadFlatDawg(InputStream is, Executor executor, LoadListener listener) {
+        return load(is, executor, listener, new Reader<FlatDawg>() {
+            FlatDawg read(InputStream in, LoadListener l) throws IOException {
+                FlatDawg dawg = new FlatDawg();
+                dawg.init(in, l);
+                return dawg;
+            }
+        });
+    }
+    public static CompletableFuture<FlatGaddag> loadFlatGaddag(InputStream is, Executor executor, LoadListener listener) {
+        return load(is, executor, listener, new Reader<FlatGaddag>() {
+            FlatGaddag read(InputStream in, LoadListener l) throws IOException {
+                FlatGaddag gaddag = new FlatGaddag();
+                gaddag.init(in, l);
+                return gaddag;
+            }
+        });
+    }
+    public static CompletableFuture<MultiLexicon> loadMultiLexicon(InputStream is, final String[] names, Executor executor, LoadListener listener) {
+        return load(is, executor, listener, new Reader<MultiLexicon>() {
+            MultiLexicon read(InputStream in, LoadListener l) throws IOException {
+                MultiLexicon lexicon = new MultiLexicon(names);
+                lexicon.init(in, l);
+                return lexicon;
+            }
+        });
+    }
+    public static CompletableFuture<Dawg> loadDawg(InputStream is, Executor executor, LoadListener listener) {
+        return load(is, executor, listener, new Reader<Dawg>() {
+            Dawg read(InputStream in, LoadListener l) throws IOException {
+                return new Dawg(in, l);
+            }
+        });
+    }
+    public static CompletableFuture<Gaddag> loadGaddag(InputStream is, Executor executor, LoadListener listener) {
+        return load(is, executor, listener, new Reader<Gaddag>() {
+            Gaddag read(InputStream in, LoadListener l) throws IOException {
+                return new Gaddag(in, l);
+            }
+        });
+    }
+
+    // Each dictionary type knows how to read itself from a stream
+    private static abstract class Reader<T> {
+        abstract T read(InputStream is, LoadListener listener) throws IOException;
+    }
+
+    private static <T> CompletableFuture<T> load(final InputStream is, Executor executor, final LoadListener listener, final Reader<T> reader) {
+        return CompletableFuture.supplyAsync(new Supplier<T>() {
+            public T get() {
+                try {
+                    // getResourceAsStream hands us null for a missing file
+                    if ( is == null ) {
+                        throw new FileNotFoundException("Dictionary not found");
+                    }
+                    return reader.read(is, listener);
+                } catch (IOException ex) {
+                    throw new CompletionException(ex);
+                } finally {
+                    finished(is, listener);
+                }
+            }
+        }, executor);
+    }
+
+    // We own the stream once it has been handed to us
+    private static void finished(InputStream is, LoadListener listener) {
+        if ( is != null ) {
+            try {
+                is.close();
+            } catch (IOException ex) {
+                // Nothing left to read from it anyway
+            }
+        }
+        if ( listener != null ) {
+            listener.finished();
+        }
+    }
+}
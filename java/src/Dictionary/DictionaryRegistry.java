@@ -0,0 +1,270 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Dictionary;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+// Hands out dictionaries by name, reading each one the first time someone asks
+// for it.  Everyone asking for a name gets the same instance, so games running
+// side by side in one JVM share their dictionaries instead of each holding a copy.
+//
+// Every acquire() must be matched by a release(), even when the load failed.
+// Dictionaries nobody holds stay around until the ones loaded add up to more than
+// the memory budget, then the least recently used are dropped and read again the
+// next time they are wanted.  The budget only covers dictionaries read from a file.
+// A sub-list is a view into its master with nothing of its own to free, so it is let
+// go with its last release, and the master is then free to be dropped in its turn.
+public class DictionaryRegistry {
+    // Name of the full word list, the sub-lists of lists.dawg are named after it
+    public static final String MASTER = "twl";
+
+    // Sub-lists in the order scripts/make_lists.sh writes them into lists.dawg
+    public static final String[] LISTS = { "2", "3", "4", "7", "est", "ing", "un", "pre", "out" };
+
+    private static DictionaryRegistry shared;
+
+    private final HashMap<String, Entry> entries;
+    private final Executor executor;
+    private long budget;
+    private long loadedBytes;
+    private long clock;
+
+    // What we know about one name
+    private static class Entry {
+        String name;
+        Loader loader;
+        CompletableFuture<Lexicon> dictionary;
+        int references;
+        long lastUsed;
+        long bytes;
+    }
+
+    // How to bring a dictionary into memory, and what to undo once it is dropped.
+    // Only loaders reading a file hold memory worth counting against the budget
+    private static abstract class Loader {
+        abstract CompletableFuture<Lexicon> load(LoadListener listener);
+        void dropped() { }
+        boolean holdsMemory() { return true; }
+    }
+
+    public DictionaryRegistry(Executor initExecutor, long initBudget) {
+        entries = new HashMap<String, Entry>();
+        executor = initExecutor;
+        budget = initBudget;
+        loadedBytes = 0;
+        clock = 0;
+    }
+
+    // The registry the games use, knowing the dictionaries shipped in /Data
+    public static synchronized DictionaryRegistry shared() {
+        if ( shared == null ) {
+            // Load threads keep the JVM up until the dictionary is in, then go away when idle
+            ExecutorService executor = Executors.newCachedThreadPool();
+
+            shared = new DictionaryRegistry(executor, Runtime.getRuntime().maxMemory() / 8);
+            shared.registerResource(MASTER, "/Data/lists.dawg", LISTS);
+        }
+        return shared;
+    }
+
+    // A flat DAWG read from a classpath resource
+    public synchronized void registerResource(String name, final String resource) {
+        register(name, new Loader() {
+            CompletableFuture<Lexicon> load(LoadListener listener) {
+                return widen(DictionaryLoader.loadFlatDawg(DictionaryRegistry.class.getResourceAsStream(resource), executor, listener));
+            }
+        });
+    }
+
+    // A MultiLexicon read from a classpath resource.  The master list goes by the name
+    // given and each sub-list by the name, a slash, and the sub-list name
+    public synchronized void registerResource(final String name, final String resource, final String[] lists) {
+        register(name, new Loader() {
+            CompletableFuture<Lexicon> load(LoadListener listener) {
+                return widen(DictionaryLoader.loadMultiLexicon(DictionaryRegistry.class.getResourceAsStream(resource), lists, executor, listener));
+            }
+        });
+
+        for (int list=0; list<lists.length; list++) {
+            registerView(name, lists[list]);
+        }
+    }
+
+    // A view holds on to the master it came from for as long as it is loaded
+    private void registerView(final String masterName, final String list) {
+        register(masterName+"/"+list, new Loader() {
+            CompletableFuture<Lexicon> load(LoadListener listener) {
+                return acquire(masterName, listener).thenApply(new Function<Lexicon, Lexicon>() {
+                    public Lexicon apply(Lexicon master) {
+                        LexiconView view = ((MultiLexicon) master).view(list);
+                        if ( view == null ) {
+                            throw new CompletionException(new FileNotFoundException("No sub-list "+list+" in "+masterName));
+                        }
+                        return view;
+                    }
+                });
+            }
+            void dropped() {
+                release(masterName);
+            }
+            boolean holdsMemory() { return false; }
+        });
+    }
+
+    private void register(String name, Loader loader) {
+        if ( entries.containsKey(name) ) {
+            throw new IllegalArgumentException("Dictionary "+name+" is already registered");
+        }
+
+        Entry entry = new Entry();
+        entry.name = name;
+        entry.loader = loader;
+        entries.put(name, entry);
+    }
+
+    public synchronized boolean isRegistered(String name) {
+        return entries.containsKey(name);
+    }
+
+    // True if the dictionary is in memory now, or on its way
+    public synchronized boolean isLoaded(String name) {
+        return entry(name).dictionary != null;
+    }
+
+    public synchronized long budget() { return budget; }
+    public synchronized long loadedBytes() { return loadedBytes; }
+
+    // A smaller budget takes effect straight away
+    public synchronized void setBudget(long initBudget) {
+        budget = initBudget;
+        trim();
+    }
+
+    public CompletableFuture<Lexicon> acquire(String name) {
+        return acquire(name, null);
+    }
+
+    // The listener only hears about the load if this call is the one starting it
+    public synchronized CompletableFuture<Lexicon> acquire(String name, LoadListener listener) {
+        final Entry entry = entry(name);
+        entry.references++;
+        entry.lastUsed = ++clock;
+
+        if ( entry.dictionary == null ) {
+            // Take the bytes read as the size, close enough to what the dictionary holds on to
+            final long[] bytesRead = new long[1];
+            final LoadListener outer = listener;
+            LoadListener counter = new LoadListener() {
+                public void progress(long bytes, long totalBytes) {
+                    bytesRead[0] = bytes;
+                    if ( outer != null ) { outer.progress(bytes, totalBytes); }
+                }
+                public void finished() {
+                    if ( outer != null ) { outer.finished(); }
+                }
+            };
+
+            final CompletableFuture<Lexicon> dictionary = entry.loader.load(counter);
+            entry.dictionary = dictionary;
+            dictionary.whenComplete(new BiConsumer<Lexicon, Throwable>() {
+                public void accept(Lexicon lexicon, Throwable ex) {
+                    loaded(entry, dictionary, ex == null ? bytesRead[0] : -1);
+                }
+            });
+        }
+
+        return entry.dictionary;
+    }
+
+    public synchronized void release(String name) {
+        Entry entry = entry(name);
+        if ( entry.references <= 0 ) {
+            throw new IllegalStateException("Dictionary "+name+" was released more often than acquired");
+        }
+
+        entry.references--;
+        if ( entry.references == 0 && ! entry.loader.holdsMemory() && entry.dictionary != null && entry.dictionary.isDone() ) {
+            drop(entry);
+        }
+        trim();
+    }
+
+    // A failed load is forgotten so the next acquire tries again
+    private synchronized void loaded(Entry entry, CompletableFuture<Lexicon> dictionary, long bytes) {
+        if ( entry.dictionary != dictionary ) { return; }
+
+        if ( bytes < 0 ) {
+            entry.dictionary = null;
+            entry.loader.dropped();
+            return;
+        }
+
+        // A view hears about its master's load too, but the bytes are the master's
+        if ( ! entry.loader.holdsMemory() ) {
+            if ( entry.references == 0 ) { drop(entry); }
+            return;
+        }
+
+        entry.bytes = bytes;
+        loadedBytes += bytes;
+        trim();
+    }
+
+    // Drop unused dictionaries, oldest first, until we are back under budget
+    private void trim() {
+        while ( loadedBytes > budget ) {
+            Entry oldest = null;
+            for (Entry entry : entries.values()) {
+                if ( entry.references > 0 || entry.dictionary == null || !entry.dictionary.isDone() ) { continue; }
+                if ( oldest == null || entry.lastUsed < oldest.lastUsed ) {
+                    oldest = entry;
+                }
+            }
+            if ( oldest == null ) { return; }
+
+            drop(oldest);
+        }
+    }
+
+    private void drop(Entry entry) {
+        entry.dictionary = null;
+        loadedBytes -= entry.bytes;
+        entry.bytes = 0;
+        entry.loader.dropped();
+    }
+
+    private Entry entry(String name) {
+        Entry entry = entries.get(name);
+        if ( entry == null ) {
+            throw new IllegalArgumentException("No dictionary registered as "+name);
+        }
+        return entry;
+    }
+
+    // Futures are not covariant, so the loaders' results need widening
+    private static CompletableFuture<Lexicon> widen(CompletableFuture<? extends Lexicon> dictionary) {
+        return dictionary.thenApply(new Function<Lexicon, Lexicon>() {
+            public Lexicon apply(Lexicon lexicon) { return lexicon; }
+        });
+    }
+}
@@ -0,0 +1,260 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Dictionary;
+
+import Data.*;
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+import java.util.logging.*;
+
+// Dawg stored in parallel arrays indexed by node number instead of one object per node.
+//
+// Nodes are renumbered as they are read so that the children of every node sit
+// in one contiguous block, sorted by letter bit.  Each node keeps a mask of the
+// letters it has children for, so the child for a letter is simply the start of
+// the block plus the number of lower letters in the mask.  Blocks are laid out
+// breadth first, which keeps the busy top of the tree close together.
+public class FlatDawg extends Lexicon {
+    private byte[] values;
+    private byte[] flags;
+    private int[] childMasks;
+    private int[] children;
+    private int count;
+
+    // Size of a single node in the .dawg file: value, sibling, child, terminal
+    public static final int RECORD_SIZE = 13;
+
+    // Values stored in flags
+    private static final byte TERMINAL = 0x1;
+    private static final byte LAST_SIBLING = 0x2;
+
+    public FlatDawg(InputStream is) {
+        this();
+
+        try {
+            init(is, null);
+        } catch (IOException ex) {
+            Logger.getLogger(FlatDawg.class.getName()).log(Level.SEVERE, null, ex);
+            allocate(0);
+        }
+    }
+
+    // Start out empty so a failed load leaves us with an empty dictionary
+    FlatDawg() {
+        super();
+        allocate(0);
+    }
+
+    void allocate(int size) {
+        values = new byte[size + 1];
+        flags = new byte[size + 1];
+        childMasks = new int[size + 1];
+        children = new int[size + 1];
+        count = 0;
+
+        // NONE has neither children nor siblings
+        flags[NONE] = LAST_SIBLING;
+    }
+    private void grow() {
+        int size = values.length * 2;
+        values = Arrays.copyOf(values, size);
+        flags = Arrays.copyOf(flags, size);
+        childMasks = Arrays.copyOf(childMasks, size);
+        children = Arrays.copyOf(children, size);
+    }
+
+    // Read the whole file in one go, then renumber the nodes into child blocks.
+    // Version 2 files are already in our order, see DawgFormat
+    void init(InputStream is, LoadListener listener) throws IOException {
+        LittleEndianInputStream in = new LittleEndianInputStream(ProgressInputStream.wrap(is, listener));
+        int fileCount = in.readInt();
+        if ( fileCount == DawgFormat.MAGIC ) {
+            initCompact(DawgFormat.read(in));
+            return;
+        }
+
+        byte[] records = new byte[fileCount * RECORD_SIZE];
+        in.readFully(records);
+
+        // Decode the records as they are in the file, indexed by uid
+        ByteBuffer buffer = ByteBuffer.wrap(records).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] fileValues = new byte[fileCount + 1];
+        int[] fileSiblings = new int[fileCount + 1];
+        int[] fileChildren = new int[fileCount + 1];
+        int[] fileTerminals = new int[fileCount + 1];
+        for (int uid=1; uid<=fileCount; uid++) {
+            fileValues[uid] = buffer.get();
+            fileSiblings[uid] = buffer.getInt();
+            fileChildren[uid] = buffer.getInt();
+            fileTerminals[uid] = buffer.getInt();
+        }
+
+        allocate(fileCount);
+        if ( fileCount == 0 ) { return; }
+
+        // Node 1 is the root, it sits in a block of its own
+        int[] fileNodes = new int[fileCount + 1];
+        fileNodes[1] = 1;
+        values[1] = fileValues[1];
+        flags[1] = LAST_SIBLING;
+        if ( fileTerminals[1] != 0 ) { flags[1] |= TERMINAL; }
+        count = 1;
+
+        // Shared sibling lists only get one block, remember where it went
+        int[] blocks = new int[fileCount + 1];
+        int[] siblings = new int[27];
+
+        // Visit nodes in their new order, appending each child list as a block
+        for (int node=1; node<=count; node++) {
+            int head = fileChildren[fileNodes[node]];
+            if ( head == NONE ) { continue; }
+
+            if ( blocks[head] == NONE ) {
+                blocks[head] = count + 1;
+
+                // Gather the list and insertion sort it, there are at most 27 letters
+                int length = 0;
+                for (int uid=head; uid!=NONE; uid=fileSiblings[uid]) {
+                    if ( length == siblings.length ) {
+                        throw new IOException("Too many siblings in dictionary node");
+                    }
+                    int bit = letterBit((char) fileValues[uid]);
+                    int index = length++;
+                    while ( index > 0 && letterBit((char) fileValues[siblings[index-1]]) > bit ) {
+                        siblings[index] = siblings[index-1];
+                        index--;
+                    }
+                    siblings[index] = uid;
+                }
+
+                int previousBit = 0;
+                for (int index=0; index<length; index++) {
+                    int uid = siblings[index];
+                    int bit = letterBit((char) fileValues[uid]);
+                    if ( bit == 0 || bit == previousBit ) {
+                        throw new IOException("Unsupported letter in dictionary: "+(char) fileValues[uid]);
+                    }
+                    previousBit = bit;
+
+                    count++;
+                    if ( count >= values.length ) {
+                        grow();
+                        fileNodes = Arrays.copyOf(fileNodes, values.length);
+                    }
+                    fileNodes[count] = uid;
+                    values[count] = fileValues[uid];
+                    if ( fileTerminals[uid] != 0 ) { flags[count] |= TERMINAL; }
+                }
+                flags[count] |= LAST_SIBLING;
+            }
+
+            children[node] = blocks[head];
+            int mask = 0;
+            for (int child=blocks[head]; ; child++) {
+                mask |= letterBit((char) values[child]);
+                if ( (flags[child] & LAST_SIBLING) != 0 ) { break; }
+            }
+            childMasks[node] = mask;
+        }
+
+        loaded(fileNodes, fileTerminals);
+    }
+
+    // Take the records as they are, only checking each list of children is sorted
+    // the way child(node, char) expects
+    private void initCompact(ByteBuffer file) throws IOException {
+        int fileCount = DawgFormat.count(file);
+        byte[] alphabet = DawgFormat.alphabet(file);
+
+        allocate(fileCount);
+        if ( fileCount == 0 ) { return; }
+
+        int offset = DawgFormat.offset(file, 1);
+        for (int node=1; node<=fileCount; node++) {
+            int record = file.getInt(offset + (node - 1) * 4);
+            int letter = record >>> DawgFormat.LETTER_SHIFT;
+            int child = record & DawgFormat.CHILD_MASK;
+            if ( letter >= alphabet.length || child > fileCount ) {
+                throw new IOException("Corrupt dictionary node "+node);
+            }
+
+            values[node] = alphabet[letter];
+            if ( (record & DawgFormat.TERMINAL) != 0 ) { flags[node] |= TERMINAL; }
+            if ( (record & DawgFormat.LAST_SIBLING) != 0 ) { flags[node] |= LAST_SIBLING; }
+            children[node] = child;
+        }
+        count = fileCount;
+
+        // The root has no siblings whatever the file says
+        flags[1] |= LAST_SIBLING;
+        for (int node=1; node<=count; node++) {
+            if ( children[node] == NONE ) { continue; }
+
+            int mask = 0;
+            int previousBit = 0;
+            for (int child=children[node]; ; child++) {
+                int bit = child <= count ? letterBit((char) values[child]) : 0;
+                if ( bit <= previousBit ) {
+                    throw new IOException("Unsorted or unsupported children of dictionary node "+node);
+                }
+                previousBit = bit;
+                mask |= bit;
+                if ( (flags[child] & LAST_SIBLING) != 0 ) { break; }
+            }
+            childMasks[node] = mask;
+        }
+
+        loaded(null, null);
+    }
+
+    // Called once the nodes are in place, with the file uid behind each node and the
+    // terminal field as the file had it, for subclasses that keep more than a flag.
+    // Both are null for a version 2 file, which only has the flag
+    void loaded(int[] fileNodes, int[] fileTerminals) throws IOException {
+    }
+
+    // Number of nodes in this structure, not counting NONE
+    public int size() { return count; }
+
+    public int root() {
+        if ( count == 0 ) { return NONE; }
+        return 1;
+    }
+    public char value(int node) { return (char) values[node]; }
+    public int sibling(int node) {
+        if ( (flags[node] & LAST_SIBLING) != 0 ) { return NONE; }
+        return node + 1;
+    }
+    public int child(int node) { return children[node]; }
+    public boolean isTerminal(int node) { return (flags[node] & TERMINAL) != 0; }
+
+    // The rank of the letter among this nodes children is its offset within the block
+    @Override
+    public int child(int node, char childValue) {
+        int bit = letterBit(childValue);
+        int mask = childMasks[node];
+        if ( (mask & bit) == 0 ) { return NONE; }
+
+        return children[node] + Integer.bitCount(mask & (bit - 1));
+    }
+    @Override
+    public int childMask(int node) { return childMasks[node]; }
+}
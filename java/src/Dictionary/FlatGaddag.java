@@ -0,0 +1,67 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Dictionary;
+
+import java.io.*;
+import java.util.logging.*;
+
+// A .gaddag file read into a FlatDawg.  Every word is stored once for each of its
+// letters: the letters up to and including that one reversed, the '#' separator, then
+// the rest of the word.  The whole word reversed is stored without a separator
+public class FlatGaddag extends FlatDawg {
+    public FlatGaddag(InputStream is) {
+        super();
+
+        try {
+            init(is, null);
+        } catch (IOException ex) {
+            Logger.getLogger(FlatGaddag.class.getName()).log(Level.SEVERE, null, ex);
+            allocate(0);
+        }
+    }
+
+    // Used by DictionaryLoader, which wants to hear about failures
+    FlatGaddag() {
+        super();
+    }
+
+    @Override
+    public boolean isGaddag() { return true; }
+
+    // A word is valid if its reversal, which has no separator in it, is terminal
+    @Override
+    public boolean validWord(CharSequence word) {
+        int node = root();
+        for (int index=word.length()-1; index>=0 && node != NONE; index--) {
+            node = child(node, word.charAt(index));
+        }
+
+        return node != NONE && node != root() && isTerminal(node);
+    }
+    @Override
+    public boolean validWord(char[] word, int offset, int length) {
+        int node = root();
+        for (int index=offset+length-1; index>=offset && node != NONE; index--) {
+            node = child(node, word[index]);
+        }
+
+        return node != NONE && node != root() && isTerminal(node);
+    }
+}
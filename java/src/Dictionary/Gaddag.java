@@ -19,18 +19,50 @@
 
 package Dictionary;
 
-import java.io.InputStream;
+import java.io.*;
 
 // Same structure as a DAWG but different contents
 public class Gaddag extends Dawg {
 
     public Gaddag(final InputStream is) {
-        init(is);
+        super(is);
+    }
+    Gaddag(final InputStream is, LoadListener listener) throws IOException {
+        super(is, listener);
     }
 
-    // Gaddag words are stored rotated by at least one character, separated with '#'
+    // Gaddag words are stored rotated by at least one character, separated with '#'.
+    // Walk the first letter, then the separator, then the rest of the word
     @Override
-    public boolean validWord(String word) {
-        return super.validWord(word.charAt(0)+"#"+word.substring(1));
+    public boolean validWord(CharSequence word) {
+        if ( word.length() == 0 ) { return false; }
+
+        Dawg node = separated(word.charAt(0));
+        for (int index=1; index<word.length() && node != null; index++) {
+            node = node.child(word.charAt(index));
+        }
+
+        return node != null && node.isTerminal();
     }
+    @Override
+    public boolean validWord(char[] word, int offset, int length) {
+        if ( length == 0 ) { return false; }
+
+        Dawg node = separated(word[offset]);
+        for (int index=offset+1; index<offset+length && node != null; index++) {
+            node = node.child(word[index]);
+        }
+
+        return node != null && node.isTerminal();
+    }
+
+    // Node reached by the first letter of a word followed by the separator
+    private Dawg separated(char firstLetter) {
+        Dawg node = child(firstLetter);
+        if ( node == null ) { return null; }
+
+        return node.child(SEPARATOR);
+    }
+
+    public static final char SEPARATOR = '#';
 }
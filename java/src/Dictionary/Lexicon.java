@@ -0,0 +1,114 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Dictionary;
+
+import Assistant.util.*;
+
+// A dictionary stored as an indexed graph.  Nodes are referenced by number
+// rather than by object, node NONE plays the part of a null reference.
+public abstract class Lexicon {
+    public static final int NONE = 0;
+
+    // Letters A-Z map to bits 0-25 of a letter mask, the GADDAG separator to bit 26
+    public static final char SEPARATOR = '#';
+    public static final int SEPARATOR_BIT = 1 << 26;
+    public static final int ALL_LETTERS = (1 << 26) - 1;
+
+    // Every implementation must be able to answer these
+    public abstract int root();
+    public abstract char value(int node);
+    public abstract int sibling(int node);
+    public abstract int child(int node);
+    public abstract boolean isTerminal(int node);
+
+    public boolean hasSibling(int node) {
+        return sibling(node) != NONE;
+    }
+    public boolean hasChild(int node) {
+        return child(node) != NONE;
+    }
+    public boolean hasChild(int node, char childValue) {
+        return child(node, childValue) != NONE;
+    }
+
+    // Return the child of node with the value indicated, NONE otherwise
+    public int child(int node, char childValue) {
+        int nextChild = child(node);
+        while ( nextChild != NONE ) {
+            if ( value(nextChild) == childValue ) { return nextChild; }
+            nextChild = sibling(nextChild);
+        }
+
+        return NONE;
+    }
+
+    // Mask of the letters this node has children for.  Implementations with a
+    // faster way of knowing should override this
+    public int childMask(int node) {
+        int mask = 0;
+        int nextChild = child(node);
+        while ( nextChild != NONE ) {
+            mask |= letterBit(value(nextChild));
+            nextChild = sibling(nextChild);
+        }
+        return mask;
+    }
+
+    // True if words are stored GADDAG style, rotated around a '#' separator
+    // instead of spelled front to back
+    public boolean isGaddag() { return false; }
+
+    // Convert between letters and letter mask bits, 0 means the letter has no bit
+    public static int letterBit(char letter) {
+        if ( letter >= 'A' && letter <= 'Z' ) { return 1 << (letter - 'A'); }
+        if ( letter == SEPARATOR ) { return SEPARATOR_BIT; }
+        return 0;
+    }
+    public static char bitLetter(int bit) {
+        if ( bit == SEPARATOR_BIT ) { return SEPARATOR; }
+        return (char) ('A' + Integer.numberOfTrailingZeros(bit));
+    }
+
+    // Determine if a word exists in this structure, walking it without allocating anything
+    public boolean validWord(CharSequence word) {
+        int node = root();
+        for (int index=0; index<word.length() && node != NONE; index++) {
+            node = child(node, word.charAt(index));
+        }
+
+        return node != NONE && isTerminal(node);
+    }
+    public boolean validWord(char[] word, int offset, int length) {
+        int node = root();
+        for (int index=offset; index<offset+length && node != NONE; index++) {
+            node = child(node, word[index]);
+        }
+
+        return node != NONE && isTerminal(node);
+    }
+
+    // Same as above, but the word must also satisfy the constraint given
+    public boolean validWord(CharSequence word, DictionaryConstraint constraint) {
+        return constraint.validate(word) && validWord(word);
+    }
+    public boolean validWord(char[] word, int offset, int length, DictionaryConstraint constraint) {
+        return constraint.validate(word, offset, length) && validWord(word, offset, length);
+    }
+}
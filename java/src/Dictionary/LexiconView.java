@@ -0,0 +1,69 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Dictionary;
+
+// One sub-list of a MultiLexicon.  The nodes are the master's own, only those with a
+// word of the sub-list passing through them can be reached, and only the sub-list's
+// words are terminal, so a search never walks a branch the sub-list has nothing in
+public class LexiconView extends Lexicon {
+    private final MultiLexicon master;
+    private final int list;
+    private final int bit;
+
+    public LexiconView(MultiLexicon initMaster, int initList) {
+        master = initMaster;
+        list = initList;
+        bit = 1 << list;
+    }
+
+    public MultiLexicon master() { return master; }
+    public String name() { return master.listName(list); }
+
+    public int root() {
+        int root = master.root();
+        if ( root == NONE || (master.lists(root) & bit) == 0 ) { return NONE; }
+        return root;
+    }
+    public char value(int node) { return master.value(node); }
+    public int sibling(int node) {
+        return next(master.sibling(node));
+    }
+    public int child(int node) {
+        return next(master.child(node));
+    }
+    public boolean isTerminal(int node) { return master.isTerminal(node, list); }
+
+    // The first node from here on along the sibling list that is in the sub-list
+    private int next(int node) {
+        while ( node != NONE && (master.lists(node) & bit) == 0 ) {
+            node = master.sibling(node);
+        }
+        return node;
+    }
+
+    @Override
+    public int child(int node, char childValue) {
+        int child = master.child(node, childValue);
+        if ( child == NONE || (master.lists(child) & bit) == 0 ) { return NONE; }
+        return child;
+    }
+    @Override
+    public boolean isGaddag() { return master.isGaddag(); }
+}
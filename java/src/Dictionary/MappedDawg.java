@@ -0,0 +1,148 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Dictionary;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.logging.*;
+
+// Dawg that answers queries straight out of a memory mapped .dawg file.
+// Nothing is decoded up front, every lookup reads the 13 byte record in place,
+// so loading is the map call and one pass checking the file, and the pages are
+// shared with any other process that maps the same file.  Version 2 files are read
+// the same way, their 4 byte records packing four times as many nodes into every page
+public class MappedDawg extends Lexicon {
+    private ByteBuffer records;
+    private int count;
+
+    // Set for a version 2 file, see DawgFormat
+    private boolean compact;
+    private byte[] alphabet;
+    private int compactOffset;
+
+    // Offsets within a single record: value, sibling, child, terminal
+    private static final int HEADER_SIZE = 4;
+    private static final int SIBLING_OFFSET = 1;
+    private static final int CHILD_OFFSET = 5;
+    private static final int TERMINAL_OFFSET = 9;
+
+    public MappedDawg(File file) {
+        super();
+
+        // Start out empty so a failed map leaves us with an empty dictionary
+        records = ByteBuffer.allocate(0);
+        count = 0;
+
+        try {
+            init(file);
+        } catch (IOException ex) {
+            Logger.getLogger(MappedDawg.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    private void init(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        MappedByteBuffer mapped;
+        try {
+            FileChannel channel = raf.getChannel();
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            // The mapping stays valid after the channel is closed
+            raf.close();
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        // Checking the CRC reads the file through once, version 2 files are small
+        if ( mapped.capacity() >= 4 && mapped.getInt(0) == DawgFormat.MAGIC ) {
+            DawgFormat.check(mapped);
+            alphabet = DawgFormat.alphabet(mapped);
+            compactOffset = DawgFormat.offset(mapped, 1);
+            compact = true;
+            records = mapped;
+            count = DawgFormat.count(mapped);
+            return;
+        }
+
+        // First integer is the count of nodes in the file, make sure they are all there
+        int nodes = mapped.getInt(0);
+        if ( nodes < 0 || (long) nodes * FlatDawg.RECORD_SIZE + HEADER_SIZE > mapped.capacity() ) {
+            throw new IOException("Truncated dictionary file: "+file);
+        }
+
+        // Version 1 has no checksum, so make sure every link stays inside the file
+        // rather than finding out halfway through a lookup
+        for (int node=1; node<=nodes; node++) {
+            int sibling = mapped.getInt(offset(node) + SIBLING_OFFSET);
+            int child = mapped.getInt(offset(node) + CHILD_OFFSET);
+            if ( sibling < 0 || sibling > nodes || child < 0 || child > nodes ) {
+                throw new IOException("Corrupt dictionary file: "+file+", node "+node+" links outside the "+nodes+" nodes");
+            }
+        }
+
+        records = mapped;
+        count = nodes;
+    }
+
+    // Position of the record for this node, uids start at 1
+    private int offset(int node) {
+        return HEADER_SIZE + (node - 1) * FlatDawg.RECORD_SIZE;
+    }
+    private int compactRecord(int node) {
+        return records.getInt(compactOffset + (node - 1) * 4);
+    }
+
+    // Number of nodes in this structure, not counting NONE
+    public int size() { return count; }
+
+    public int root() {
+        if ( count == 0 ) { return NONE; }
+        return 1;
+    }
+    public char value(int node) {
+        if ( node == NONE ) { return 0x0; }
+        if ( compact ) {
+            return (char) (alphabet[compactRecord(node) >>> DawgFormat.LETTER_SHIFT] & 0xFF);
+        }
+        return (char) records.get(offset(node));
+    }
+    public int sibling(int node) {
+        if ( node == NONE ) { return NONE; }
+        if ( compact ) {
+            if ( node == 1 || (compactRecord(node) & DawgFormat.LAST_SIBLING) != 0 ) { return NONE; }
+            return node + 1;
+        }
+        return records.getInt(offset(node) + SIBLING_OFFSET);
+    }
+    public int child(int node) {
+        if ( node == NONE ) { return NONE; }
+        if ( compact ) {
+            return compactRecord(node) & DawgFormat.CHILD_MASK;
+        }
+        return records.getInt(offset(node) + CHILD_OFFSET);
+    }
+    public boolean isTerminal(int node) {
+        if ( node == NONE ) { return false; }
+        if ( compact ) {
+            return (compactRecord(node) & DawgFormat.TERMINAL) != 0;
+        }
+        return records.getInt(offset(node) + TERMINAL_OFFSET) != 0;
+    }
+}
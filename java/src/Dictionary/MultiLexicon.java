@@ -0,0 +1,280 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Dictionary;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+import java.util.logging.*;
+
+// A master word list and up to 31 named sub-lists of it, read from one .dawg file into
+// one graph.  The terminal field of each record holds bit 0 for the master list and bit
+// i+1 for every sub-list i the word is in, so any other loader reads the file as the
+// master list alone.  With all 31 sub-lists the value can be negative, so loaders
+// take any value but zero as terminal.  Each node keeps a bit for every sub-list with a word passing
+// through it, and a LexiconView walks one sub-list by skipping the nodes without its bit.
+//
+// Nodes only mean the same thing to every sub-list if they are split wherever the lists
+// need them to be, which write() takes care of when building the file out of the
+// master and sub-list .dawg files
+public class MultiLexicon extends FlatDawg {
+    public static final int MAX_LISTS = 31;
+
+    private String[] names;
+    private int[] terminalLists;
+    private int[] lists;
+
+    public MultiLexicon(InputStream is, String[] initNames) {
+        this(initNames);
+
+        try {
+            init(is, null);
+        } catch (IOException ex) {
+            Logger.getLogger(MultiLexicon.class.getName()).log(Level.SEVERE, null, ex);
+            allocate(0);
+            terminalLists = new int[1];
+            lists = new int[1];
+        }
+    }
+
+    // The names are those of the sub-lists, in the order they were written
+    MultiLexicon(String[] initNames) {
+        super();
+        names = initNames.clone();
+        terminalLists = new int[1];
+        lists = new int[1];
+    }
+
+    void loaded(int[] fileNodes, int[] fileTerminals) throws IOException {
+        if ( fileNodes == null ) {
+            throw new IOException("Sub-list membership needs a version 1 file");
+        }
+
+        terminalLists = new int[size() + 1];
+        lists = new int[size() + 1];
+        for (int node=1; node<=size(); node++) {
+            terminalLists[node] = fileTerminals[fileNodes[node]] >>> 1;
+        }
+
+        // Child blocks are shared, so a node can sit before or after its children
+        boolean[] done = new boolean[size() + 1];
+        if ( root() != NONE ) { gather(root(), done); }
+    }
+    private int gather(int node, boolean[] done) {
+        if ( done[node] ) { return lists[node]; }
+
+        int bits = terminalLists[node];
+        for (int child=child(node); child!=NONE; child=sibling(child)) {
+            bits |= gather(child, done);
+        }
+        done[node] = true;
+        lists[node] = bits;
+
+        return bits;
+    }
+
+    public int listCount() { return names.length; }
+    public String listName(int list) { return names[list]; }
+
+    // Index of the sub-list with this name, -1 if there is none
+    public int list(String name) {
+        for (int list=0; list<names.length; list++) {
+            if ( names[list].equals(name) ) { return list; }
+        }
+        return -1;
+    }
+
+    // Bit i is set if sub-list i has a word passing through node
+    public int lists(int node) { return lists[node]; }
+
+    // True if the word ending at node is in the sub-list
+    public boolean isTerminal(int node, int list) {
+        return (terminalLists[node] & (1 << list)) != 0;
+    }
+
+    public LexiconView view(int list) {
+        return new LexiconView(this, list);
+    }
+    public LexiconView view(String name) {
+        int list = list(name);
+        if ( list < 0 ) { return null; }
+
+        return view(list);
+    }
+
+    // Write a .dawg holding the master list with every sub-list marked in it.  A node is
+    // written for each mix of master and sub-list nodes that the same letters lead to,
+    // so the graph splits only where the sub-lists tell words apart.  Words a sub-list has
+    // that the master does not are left out
+    public static void write(Lexicon master, Lexicon[] subLists, OutputStream os) throws IOException {
+        if ( subLists.length > MAX_LISTS ) {
+            throw new IOException("Too many sub-lists: "+subLists.length);
+        }
+
+        ListWriter writer = new ListWriter(master, subLists);
+        writer.write(os);
+    }
+
+    // Builds the records before writing them.  The root is uid 1, then every list of
+    // children gets consecutive uids the first time its mix of nodes is seen, unless a
+    // list with the same letters, terminals and children was already added
+    private static class ListWriter {
+        private final Lexicon master;
+        private final Lexicon[] subLists;
+        private final HashMap<String, Integer> blocks = new HashMap<String, Integer>();
+        private final HashMap<String, Integer> shared = new HashMap<String, Integer>();
+
+        private byte[] values = new byte[1024];
+        private int[] siblings = new int[1024];
+        private int[] children = new int[1024];
+        private int[] terminals = new int[1024];
+        private int count = 1;
+
+        ListWriter(Lexicon initMaster, Lexicon[] initSubLists) {
+            master = initMaster;
+            subLists = initSubLists;
+        }
+
+        void write(OutputStream os) throws IOException {
+            int[] root = new int[subLists.length + 1];
+            root[0] = master.root();
+            for (int list=0; list<subLists.length; list++) {
+                root[list+1] = subLists[list].root();
+            }
+
+            // Blocks are added before the root is filled in, since adding them can
+            // replace the arrays
+            int first = root[0] == NONE ? NONE : block(root);
+            values[1] = (byte) (root[0] == NONE ? 0 : master.value(root[0]));
+            children[1] = first;
+
+            ByteBuffer buffer = ByteBuffer.allocate(4 + count * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(count);
+            for (int uid=1; uid<=count; uid++) {
+                buffer.put(values[uid]);
+                buffer.putInt(siblings[uid]);
+                buffer.putInt(children[uid]);
+                buffer.putInt(terminals[uid]);
+            }
+            os.write(buffer.array());
+            os.flush();
+        }
+
+        // The uid of the first child of the nodes given, master first, NONE if it has none
+        private int block(int[] nodes) {
+            String key = Arrays.toString(nodes);
+            Integer known = blocks.get(key);
+            if ( known != null ) { return known.intValue(); }
+
+            ArrayList<int[]> nextNodes = new ArrayList<int[]>();
+            for (int child=master.child(nodes[0]); child!=NONE; child=master.sibling(child)) {
+                char letter = master.value(child);
+                int[] next = new int[nodes.length];
+                next[0] = child;
+                for (int list=0; list<subLists.length; list++) {
+                    if ( nodes[list+1] != NONE ) {
+                        next[list+1] = subLists[list].child(nodes[list+1], letter);
+                    }
+                }
+                nextNodes.add(next);
+            }
+
+            // Children's blocks first, so this block's uids stay together
+            int[] nextBlocks = new int[nextNodes.size()];
+            for (int index=0; index<nextNodes.size(); index++) {
+                nextBlocks[index] = block(nextNodes.get(index));
+            }
+
+            // Work out the records, then only add them if no block the same is there yet
+            StringBuilder records = new StringBuilder();
+            int[] nextTerminals = new int[nextNodes.size()];
+            for (int index=0; index<nextNodes.size(); index++) {
+                int[] next = nextNodes.get(index);
+                nextTerminals[index] = master.isTerminal(next[0]) ? 1 : 0;
+                for (int list=0; list<subLists.length && nextTerminals[index] != 0; list++) {
+                    if ( next[list+1] != NONE && subLists[list].isTerminal(next[list+1]) ) {
+                        nextTerminals[index] |= 1 << (list+1);
+                    }
+                }
+                records.append(master.value(next[0])).append(nextTerminals[index]).append(',').append(nextBlocks[index]).append(' ');
+            }
+
+            Integer same = shared.get(records.toString());
+            if ( same == null ) {
+                int first = nextNodes.isEmpty() ? NONE : count + 1;
+                for (int index=0; index<nextNodes.size(); index++) {
+                    int uid = add();
+                    values[uid] = (byte) master.value(nextNodes.get(index)[0]);
+                    siblings[uid] = index == nextNodes.size()-1 ? NONE : uid + 1;
+                    children[uid] = nextBlocks[index];
+                    terminals[uid] = nextTerminals[index];
+                }
+                same = Integer.valueOf(first);
+                shared.put(records.toString(), same);
+            }
+
+            blocks.put(key, same);
+            return same.intValue();
+        }
+
+        private int add() {
+            count++;
+            if ( count >= values.length ) {
+                int size = values.length * 2;
+                values = Arrays.copyOf(values, size);
+                siblings = Arrays.copyOf(siblings, size);
+                children = Arrays.copyOf(children, size);
+                terminals = Arrays.copyOf(terminals, size);
+            }
+            return count;
+        }
+    }
+
+    // Build a file out of a master .dawg and any number of sub-list .dawg files
+    public static void main(String args[]) throws IOException {
+        if ( args.length < 2 ) {
+            System.err.println("Usage: MultiLexicon <output> <master.dawg> [sub-list.dawg ...]");
+            System.exit(1);
+        }
+
+        FlatDawg master = load(args[1]);
+        Lexicon[] subLists = new Lexicon[args.length - 2];
+        for (int list=0; list<subLists.length; list++) {
+            subLists[list] = load(args[list+2]);
+        }
+
+        OutputStream os = new BufferedOutputStream(new FileOutputStream(args[0]));
+        try {
+            write(master, subLists, os);
+        } finally {
+            os.close();
+        }
+    }
+    private static FlatDawg load(String file) throws IOException {
+        InputStream is = new FileInputStream(file);
+        try {
+            FlatDawg dawg = new FlatDawg();
+            dawg.init(is, null);
+            return dawg;
+        } finally {
+            is.close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Dictionary;
+
+import java.io.*;
+
+// Counts the bytes read through it and reports them to a LoadListener
+class ProgressInputStream extends FilterInputStream {
+    private LoadListener listener;
+    private long bytesRead;
+    private long totalBytes;
+
+    private ProgressInputStream(InputStream is, LoadListener initListener) {
+        super(is);
+        listener = initListener;
+        bytesRead = 0;
+
+        // Same guess ProgressMonitorInputStream makes
+        try {
+            totalBytes = is.available();
+        } catch (IOException ex) {
+            totalBytes = 0;
+        }
+    }
+
+    // Buffer the stream for the dictionary readers, reporting progress if anyone is listening
+    static InputStream wrap(InputStream is, LoadListener listener) {
+        if ( listener == null ) {
+            return new BufferedInputStream(is);
+        }
+        return new BufferedInputStream(new ProgressInputStream(is, listener));
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if ( value >= 0 ) { update(1); }
+        return value;
+    }
+
+    @Override
+    public int read(byte b[], int off, int len) throws IOException {
+        int count = super.read(b, off, len);
+        if ( count > 0 ) { update(count); }
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long count = super.skip(n);
+        if ( count > 0 ) { update(count); }
+        return count;
+    }
+
+    private void update(long count) {
+        bytesRead += count;
+        listener.progress(bytesRead, totalBytes);
+    }
+}
@@ -0,0 +1,36 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Game;
+
+// Answers whether there is a bingo, stopping the search at the first one found
+public class BingoFinder implements MoveSink {
+    private boolean found;
+
+    public boolean found() { return found; }
+
+    // Every bingo scores at least its bonus
+    public boolean accepts(int score) { return score >= 50; }
+
+    public void visit(int row, int col, int direction, char[] word, Tile[] tiles, int start, int length, int score, int tilesPlayed, Rack rack) {
+        if ( tilesPlayed == Rack.MAX_TILES ) { found = true; }
+    }
+
+    public boolean isDone() { return found; }
+}
@@ -44,6 +44,19 @@ public class Board {
     // To callback events after an update
     protected ObjectHandler eventHandler;
 
+    // Occupied squares and anchors as bitboards, square row*MAX_COLUMNS+col in bit
+    // square%64 of word square/64.  An anchor is an empty square next to a tile
+    private final long[] occupied = new long[BITBOARD_WORDS];
+    private final long[] anchors = new long[BITBOARD_WORDS];
+    private int tileCount;
+
+    // Every change to the tiles is counted.  Each square remembers the count when its
+    // tile was added, and the count of the last remove or clear is kept, so anything
+    // derived from the board can tell what it has missed
+    private int changeCount;
+    private int removedAt;
+    private final int[] addedAt = new int[MAX_ROWS*MAX_COLUMNS];
+
     // Constructor
     public Board() {
         tilesPlayed = new Rack();
@@ -70,12 +83,40 @@ public class Board {
         return tiles[row][col];
     }
     public boolean empty() {
-        for (int row=0; row< Rows(); row++) {
-            for (int col=0; col<Columns(); col++) {
-                if ( tile(row, col) != null ) { return false; }
-            }
+        return tileCount == 0;
+    }
+    public int tileCount() { return tileCount; }
+    public int changeCount() { return changeCount; }
+    public int removedAt() { return removedAt; }
+    public int addedAt(int row, int col) {
+        if ( row < 0 || row >= MAX_ROWS || col < 0 || col >= MAX_COLUMNS ) { return 0; }
+        return addedAt[row*MAX_COLUMNS + col];
+    }
+
+    // True if a word played here would hook onto the board.  Nothing is on an empty
+    // board yet, so there the center is the only anchor
+    public boolean isAnchor(int row, int col) {
+        if ( row < 0 || row >= MAX_ROWS || col < 0 || col >= MAX_COLUMNS ) { return false; }
+
+        int square = row*MAX_COLUMNS + col;
+        if ( tileCount == 0 ) { return square == CENTER; }
+        return isSet(anchors, square);
+    }
+
+    // The first anchor at square or after it, -1 if there is none.  Squares are numbered
+    // row*MAX_COLUMNS+col, so this walks the anchors row by row
+    public int nextAnchor(int square) {
+        if ( square < 0 ) { square = 0; }
+        if ( square >= MAX_ROWS*MAX_COLUMNS ) { return -1; }
+        if ( tileCount == 0 ) { return square <= CENTER ? CENTER : -1; }
+
+        int word = square >> 6;
+        long bits = anchors[word] & (-1L << (square & 63));
+        while ( bits == 0 ) {
+            if ( ++word == BITBOARD_WORDS ) { return -1; }
+            bits = anchors[word];
         }
-        return true;
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
     }
     public ObjectHandler getEventHandler() { return eventHandler; }
     public int Rows() { return rows; }
@@ -107,22 +148,19 @@ public class Board {
         int playingRow = move.row();
         int playingCol = move.col();
         int position = 0;
-        int wordPosition = 0;
         while ( position < move.tilesPlayed().size() ) {
             while ( tile(playingRow, playingCol) != null ) {
                 playingRow += rowVector;
                 playingCol += colVector;
-                wordPosition++;
             }
 
             playTile(move.tilesPlayed().tile(position));
             if ( move.tilesPlayed().tile(position).isBlank() ) {
-                move.tilesPlayed().tile(position).selectLetter(move.wordPlayed().charAt(wordPosition));
+                move.tilesPlayed().tile(position).selectLetter(TileCode.letter(move.tileCode(position)));
             }
             playingRow += rowVector;
             playingCol += colVector;
             position++;
-            wordPosition++;
         }
     }
     protected void startPlayingTiles(int row, int col, int direction) {
@@ -297,6 +335,12 @@ public class Board {
                 tiles[row][col] = null;
             }
         }
+        for (int word=0; word<BITBOARD_WORDS; word++) {
+            occupied[word] = 0;
+            anchors[word] = 0;
+        }
+        tileCount = 0;
+        removedAt = ++changeCount;
         eventHandler.callback();
     }
     protected Tile remove(int row, int col) {
@@ -310,6 +354,20 @@ public class Board {
         Tile removed = tiles[row][col];
         tiles[row][col] = null;
 
+        // The square and its neighbours may no longer be anchors
+        int square = row*MAX_COLUMNS + col;
+        if ( removed != null ) {
+            clearBit(occupied, square);
+            tileCount--;
+            removedAt = ++changeCount;
+
+            updateAnchor(row, col);
+            updateAnchor(row-1, col);
+            updateAnchor(row+1, col);
+            updateAnchor(row, col-1);
+            updateAnchor(row, col+1);
+        }
+
         eventHandler.callback();
         return removed;
     }
@@ -329,22 +387,19 @@ public class Board {
         int playingRow = move.row();
         int playingCol = move.col();
         int position = 0;
-        int wordPosition = 0;
         while ( position < move.tilesPlayed().size() ) {
             while ( tile(playingRow, playingCol) != null ) {
                 playingRow += rowVector;
                 playingCol += colVector;
-                wordPosition++;
             }
 
             if ( move.tilesPlayed().tile(position).isBlank() ) {
-                move.tilesPlayed().tile(position).selectLetter(move.wordPlayed().charAt(wordPosition));
+                move.tilesPlayed().tile(position).selectLetter(TileCode.letter(move.tileCode(position)));
             }
             add(move.tilesPlayed().tile(position), playingRow, playingCol);
             playingRow += rowVector;
             playingCol += colVector;
             position++;
-            wordPosition++;
         }
     }
     private void add(Tile tile, int row, int col) {
@@ -360,11 +415,49 @@ public class Board {
         if ( tile.value() == Tile.BLANK ) {
             return;
         }
+        int square = row*MAX_COLUMNS + col;
+        if ( tiles[row][col] == null ) {
+            setBit(occupied, square);
+            tileCount++;
+        }
         tiles[row][col] = tile;
+        addedAt[square] = ++changeCount;
+
+        // The square is no longer an anchor, its empty neighbours are
+        clearBit(anchors, square);
+        updateAnchor(row-1, col);
+        updateAnchor(row+1, col);
+        updateAnchor(row, col-1);
+        updateAnchor(row, col+1);
 
         eventHandler.callback();
     }
 
+    // Set the anchor bit of an empty square that has a tile above, below or beside it
+    private void updateAnchor(int row, int col) {
+        if ( row < 0 || row >= MAX_ROWS || col < 0 || col >= MAX_COLUMNS ) { return; }
+
+        int square = row*MAX_COLUMNS + col;
+        if ( ! isSet(occupied, square) && (
+                (row > 0 && isSet(occupied, square - MAX_COLUMNS)) ||
+                (row < MAX_ROWS-1 && isSet(occupied, square + MAX_COLUMNS)) ||
+                (col > 0 && isSet(occupied, square - 1)) ||
+                (col < MAX_COLUMNS-1 && isSet(occupied, square + 1))) ) {
+            setBit(anchors, square);
+        } else {
+            clearBit(anchors, square);
+        }
+    }
+    private static boolean isSet(long[] bitboard, int square) {
+        return (bitboard[square >> 6] & (1L << (square & 63))) != 0;
+    }
+    private static void setBit(long[] bitboard, int square) {
+        bitboard[square >> 6] |= 1L << (square & 63);
+    }
+    private static void clearBit(long[] bitboard, int square) {
+        bitboard[square >> 6] &= ~(1L << (square & 63));
+    }
+
     public void print() {
         System.out.println("      A B C D E F G H I J K L M N O");
         System.out.println("     -------------------------------");
@@ -390,6 +483,10 @@ public class Board {
     public static final int MAX_ROWS = 15;
     public static final int MAX_COLUMNS = 15;
 
+    // Words of 64 bits needed to hold a bit per square, and the center square
+    private static final int BITBOARD_WORDS = (MAX_ROWS*MAX_COLUMNS + 63) / 64;
+    private static final int CENTER = 7*MAX_COLUMNS + 7;
+
     // Bonus values: None, Double Letter Score, Double Word Score, Tripple LS, Tripple WS, respectively
     public static final int DLS = 1;
     public static final int DWS = 2;
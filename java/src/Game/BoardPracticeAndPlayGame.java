@@ -30,7 +30,7 @@ public class BoardPracticeAndPlayGame extends BoardPracticeGame {
     public static final int GAMEOVER = 1;
 
     // Super constructor
-    public BoardPracticeAndPlayGame(Dawg initDawg) {
+    public BoardPracticeAndPlayGame(Lexicon initDawg) {
         super(initDawg);
 
         lastCommittedMove = null;
@@ -47,7 +47,7 @@ public class BoardPracticeAndPlayGame extends BoardPracticeGame {
         emptyBoard();
         drawNewTiles();
         
-        moves = Assistant.WordPlay.boardFindall(board, rack, masterDictionary());
+        moves = Assistant.WordPlay.boardFindall(crossChecks, rack, masterDictionary());
     }
 
     // Commit the staged move currently on the board
@@ -74,7 +74,7 @@ public class BoardPracticeAndPlayGame extends BoardPracticeGame {
             state = GAMEOVER;
             moves = new MovePackage();
         } else {
-            moves = Assistant.WordPlay.boardFindall(board, rack, masterDictionary());
+            moves = Assistant.WordPlay.boardFindall(crossChecks, rack, masterDictionary());
         }
     }
 
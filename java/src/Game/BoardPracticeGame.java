@@ -21,6 +21,7 @@ package Game;
 
 import Dictionary.*;
 import Assistant.*;
+import Assistant.util.*;
 import java.util.*;
 
 // Set up a board, bag, and rack then put a random word on the board.
@@ -32,19 +33,27 @@ public class BoardPracticeGame {
     protected Rack rack;
     protected MovePackage moves;
 
+    // Cross-checks for the board, kept between searches
+    protected CrossCheckTable crossChecks;
+
     // Master dictionary used for finding connections on the board
-    private Dawg masterDictionary;
+    private Lexicon masterDictionary;
 
     // Current dictionary used for finding words within the rack
-    private Dawg currentDictionary;
+    private Lexicon currentDictionary;
+
+    // Constraint this game puts on words found with the current dictionary.
+    // Dictionaries are shared, so the constraint belongs to the game
+    private DictionaryConstraint currentConstraint = DictionaryConstraint.NONE;
 
     // The starting coordinates of each word
     protected static int startingRow = 7;
     protected static int startingCol = 7;
 
     // Must at least have a dictionary to set this up
-    public BoardPracticeGame(Dawg initMasterDictionary) {
+    public BoardPracticeGame(Lexicon initMasterDictionary) {
         board = new Board();
+        crossChecks = new CrossCheckTable(board);
         rack = new Rack();
         moves = new MovePackage();
         bag = new Bag();
@@ -55,15 +64,25 @@ public class BoardPracticeGame {
     protected BoardPracticeGame() { }
 
     // Allow anyone to change the dictionary we use
-    public Dawg currentDictionary() { return currentDictionary; }
-    public void setCurrentDictionary(Dawg initDictionary) {
+    public Lexicon currentDictionary() { return currentDictionary; }
+    public void setCurrentDictionary(Lexicon initDictionary) {
         currentDictionary = initDictionary;
         reset();
     }
+    public void setCurrentDictionary(Lexicon initDictionary, DictionaryConstraint initConstraint) {
+        currentConstraint = initConstraint;
+        setCurrentDictionary(initDictionary);
+    }
+
+    // Changing the constraint takes effect the next time words are found
+    public DictionaryConstraint currentConstraint() { return currentConstraint; }
+    public void setCurrentConstraint(DictionaryConstraint initConstraint) {
+        currentConstraint = initConstraint;
+    }
 
     // Only we can see the master dictionary
-    protected Dawg masterDictionary() { return masterDictionary; }
-    protected void setMasterDictionary(Dawg initMasterDictionary) {
+    protected Lexicon masterDictionary() { return masterDictionary; }
+    protected void setMasterDictionary(Lexicon initMasterDictionary) {
         masterDictionary = initMasterDictionary;
     }
 
@@ -84,14 +103,14 @@ public class BoardPracticeGame {
         Random rand = new Random();
         int wordIndex = rand.nextInt(boardWords.size());
 
-        Move randomMove = (Move) boardWords.get(wordIndex);
+        Move randomMove = boardWords.get(wordIndex);
         board.add(randomMove);
         rack.remove(randomMove.tilesPlayed());
 
         // Finally grab new letters for our rack and find words that hook on the ends
         drawNewTiles();
 
-        moves = Assistant.WordPlay.boardFindall(board, rack, masterDictionary);
+        moves = Assistant.WordPlay.boardFindall(crossChecks, rack, masterDictionary);
     }
 
     // Keep track of tiles played
@@ -22,7 +22,7 @@ package Game;
 import Dictionary.*;
 
 public class BoardPracticeWordplayGame extends BoardPracticeGame {
-    public BoardPracticeWordplayGame(Dawg initMasterDictionary) {
+    public BoardPracticeWordplayGame(Lexicon initMasterDictionary) {
         board = new RackBoard();
         rack = new Rack();
         moves = new MovePackage();
@@ -48,7 +48,7 @@ public class BoardPracticeWordplayGame extends BoardPracticeGame {
         rack.shuffle();
 
         // Find any moves that can be made with this rack
-        moves = Assistant.WordPlay.wordFindall(rack, currentDictionary());
+        moves = Assistant.WordPlay.wordFindall(rack, currentDictionary(), currentConstraint());
         moves.sort();
 
         board.finishPlayingTiles();
@@ -63,7 +63,7 @@ public class BoardPracticeWordplayGame extends BoardPracticeGame {
         }
 
         // Add those tiles that we need
-        String addTiles = currentDictionary().getConstraint().getContainsLetters();
+        String addTiles = currentConstraint().getContainsLetters();
         for (int index=0; index<addTiles.length(); index++) {
             rack.add(bag.draw(addTiles.charAt(index)));
         }
@@ -73,10 +73,10 @@ public class BoardPracticeWordplayGame extends BoardPracticeGame {
     // Allow anyone to add tiles to the rack
     public void addTile(char tile) {
         rack.add(bag.draw(tile));
-        currentDictionary().getConstraint().setContainsLetters(rack.toString());
+        setCurrentConstraint(currentConstraint().withContainsLetters(rack.toString()));
     }
     public void setRack(String tiles) {
-        currentDictionary().getConstraint().setContainsLetters(tiles);
+        setCurrentConstraint(currentConstraint().withContainsLetters(tiles));
         emptyRack();
     }
 
@@ -27,6 +27,9 @@ public class Move {
     private Rack tilesPlayed;
     private Rack tilesRemaining;
 
+    // What each tile played stands for, blanks included, whatever happens to the tiles later
+    private byte[] tileCodes;
+
     // Vertical positions are numbered, horizontal positions are lettered
     private int row;
     private int col;
@@ -45,6 +48,7 @@ public class Move {
     protected Move() {
         tilesPlayed = new Rack();
         tilesRemaining = new Rack();
+        tileCodes = new byte[0];
 
         col = 8;
         row = 8;
@@ -53,12 +57,18 @@ public class Move {
         isBingo = false;
     }
 
-    // Constructor we expect everyone to use
+    // Constructor we expect everyone to use, blanks played have their letters selected
     public Move(String initWordPlayed, Rack initTilesPlayed, Rack initTilesRemaining, int initRow, int initCol, int initDirection, int initScore, boolean initIsBingo) {
+        this(initWordPlayed, initTilesPlayed, codes(initTilesPlayed), initTilesRemaining, initRow, initCol, initDirection, initScore, initIsBingo);
+    }
+
+    // Searches give the codes for the tiles played, and leave the tiles alone
+    public Move(String initWordPlayed, Rack initTilesPlayed, byte[] initTileCodes, Rack initTilesRemaining, int initRow, int initCol, int initDirection, int initScore, boolean initIsBingo) {
         wordPlayed = initWordPlayed;
 
         tilesPlayed = new Rack(initTilesPlayed);
         tilesRemaining = new Rack(initTilesRemaining);
+        tileCodes = initTileCodes.clone();
 
         row = initRow;
         col = initCol;
@@ -80,6 +90,19 @@ public class Move {
     public Rack tilesPlayed() { return tilesPlayed; }
     public Rack tilesRemaining() { return tilesRemaining; }
 
+    // The TileCode of the tile played at index in tilesPlayed()
+    public byte tileCode(int index) { return tileCodes[index]; }
+
+    private static byte[] codes(Rack tiles) {
+        if ( tiles == null ) { return new byte[0]; }
+
+        byte[] codes = new byte[tiles.size()];
+        for (int index=0; index<codes.length; index++) {
+            codes[index] = TileCode.code(tiles.tile(index));
+        }
+        return codes;
+    }
+
     // Only class members can update our internal values
     protected void row(int setvPosition) {
         row = setvPosition;
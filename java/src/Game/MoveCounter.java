@@ -0,0 +1,41 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Game;
+
+// Counts the moves a search finds, without keeping any of them
+public class MoveCounter implements MoveSink {
+    private int moves;
+    private int bingos;
+    private int bestScore;
+
+    public int moves() { return moves; }
+    public int bingos() { return bingos; }
+    public int bestScore() { return bestScore; }
+
+    public boolean accepts(int score) { return true; }
+
+    public void visit(int row, int col, int direction, char[] word, Tile[] tiles, int start, int length, int score, int tilesPlayed, Rack rack) {
+        moves++;
+        if ( tilesPlayed == Rack.MAX_TILES ) { bingos++; }
+        if ( score > bestScore ) { bestScore = score; }
+    }
+
+    public boolean isDone() { return false; }
+}
@@ -0,0 +1,185 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Game;
+
+import java.util.*;
+
+// Every move a search finds, each packed into a long rather than built as a Move.  From
+// the top bit down a move holds:
+//   score            12 bits, up to 4095, more than any play on the board can make
+//   15 - row          4 bits
+//   15 - col          4 bits
+//   vertical          1 bit
+//   tile codes       42 bits, a TileCode in 6 bits for each tile played, in order,
+//                            with all 6 bits set where fewer than 7 were played
+// so sorting the longs highest first orders moves by score, then by row, column and
+// direction the way MovePackage does.  Only the tiles played are kept, a Move is decoded
+// from them and the board and rack the list was searched on, so do that before either
+// one changes
+public class MoveList implements MoveSink {
+    private static final int SCORE_SHIFT = 51;
+    private static final int ROW_SHIFT = 47;
+    private static final int COL_SHIFT = 43;
+    private static final int VERTICAL_SHIFT = 42;
+    private static final int CODE_BITS = 6;
+    private static final long NO_TILE = (1 << CODE_BITS) - 1;
+    private static final long NO_TILES = (1L << (Rack.MAX_TILES * CODE_BITS)) - 1;
+
+    private final Board board;
+    private final Rack rack;
+
+    private long[] moves = new long[64];
+    private int size;
+
+    // The board is null for words found in the rack alone
+    public MoveList(Board initBoard, Rack initRack) {
+        board = initBoard;
+        rack = initRack;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public long get(int index) { return moves[index]; }
+    public void clear() { size = 0; }
+
+    // Best move first
+    public void sort() {
+        Arrays.sort(moves, 0, size);
+        for (int low=0, high=size-1; low<high; low++, high--) {
+            long move = moves[low];
+            moves[low] = moves[high];
+            moves[high] = move;
+        }
+    }
+
+    public void add(long move) {
+        if ( size == moves.length ) { moves = Arrays.copyOf(moves, size * 2); }
+        moves[size++] = move;
+    }
+
+    // MoveList keeps every move it is given
+    public boolean accepts(int score) { return true; }
+    public boolean isDone() { return false; }
+
+    public void visit(int row, int col, int direction, char[] word, Tile[] tiles, int start, int length, int score, int tilesPlayed, Rack searchedRack) {
+        long codes = NO_TILES;
+        int shift = (Rack.MAX_TILES - 1) * CODE_BITS;
+        for (int index=start; index<start+length; index++) {
+            if ( tiles[index] == null ) { continue; }
+
+            codes &= ~(NO_TILE << shift);
+            codes |= (long) TileCode.code(word[index], tiles[index].isBlank()) << shift;
+            shift -= CODE_BITS;
+        }
+        add(pack(row, col, direction, score, codes));
+    }
+
+    // A Move packed the same way
+    static long pack(Move move) {
+        long codes = NO_TILES;
+        int shift = (Rack.MAX_TILES - 1) * CODE_BITS;
+        for (int index=0; index<move.tilesPlayed().size(); index++) {
+            codes &= ~(NO_TILE << shift);
+            codes |= (long) move.tileCode(index) << shift;
+            shift -= CODE_BITS;
+        }
+        return pack(move.row(), move.col(), move.direction(), move.score(), codes);
+    }
+
+    private static long pack(int row, int col, int direction, int score, long codes) {
+        long move = (long) score << SCORE_SHIFT;
+        move |= (long) (15 - row) << ROW_SHIFT;
+        move |= (long) (15 - col) << COL_SHIFT;
+        if ( direction == Move.VERTICAL ) { move |= 1L << VERTICAL_SHIFT; }
+        return move | codes;
+    }
+
+    // Unpacking a move
+    public static int score(long move) { return (int) (move >>> SCORE_SHIFT); }
+    public static int row(long move) { return 15 - (int) ((move >>> ROW_SHIFT) & 0xF); }
+    public static int col(long move) { return 15 - (int) ((move >>> COL_SHIFT) & 0xF); }
+    public static int direction(long move) {
+        if ( ((move >>> VERTICAL_SHIFT) & 1) != 0 ) { return Move.VERTICAL; }
+        return Move.HORIZONTAL;
+    }
+    public static byte tileCode(long move, int index) {
+        return (byte) ((move >>> ((Rack.MAX_TILES - 1 - index) * CODE_BITS)) & NO_TILE);
+    }
+    public static int tilesPlayed(long move) {
+        int count = 0;
+        while ( count < Rack.MAX_TILES && tileCode(move, count) != NO_TILE ) { count++; }
+        return count;
+    }
+
+    // The move at index as a Move.  The word is read off the board through the tiles
+    // played, which are taken from the rack
+    public Move move(int index) {
+        long move = moves[index];
+        int row = row(move);
+        int col = col(move);
+        int direction = direction(move);
+        int played = tilesPlayed(move);
+
+        int rowStep = 0;
+        int colStep = 1;
+        if ( direction == Move.VERTICAL ) {
+            rowStep = 1;
+            colStep = 0;
+        }
+
+        StringBuilder word = new StringBuilder();
+        Rack wordRack = new Rack();
+        Rack remainingRack = new Rack(rack);
+        byte[] tileCodes = new byte[played];
+        int tile = 0;
+        while ( true ) {
+            Tile boardTile = null;
+            if ( board != null ) { boardTile = board.tile(row + rowStep*word.length(), col + colStep*word.length()); }
+
+            if ( boardTile != null ) {
+                word.append(boardTile.value());
+            } else if ( tile < played ) {
+                byte code = tileCode(move, tile);
+                tileCodes[tile++] = code;
+                word.append(TileCode.letter(code));
+
+                Tile rackTile = take(remainingRack, code);
+                wordRack.add(rackTile);
+            } else {
+                break;
+            }
+        }
+
+        return new Move(word.toString(), wordRack, tileCodes, remainingRack, row, col, direction, score(move), played == Rack.MAX_TILES);
+    }
+
+    // Remove and return the rack tile that was played as code
+    private static Tile take(Rack tiles, byte code) {
+        for (int index=0; index<tiles.size(); index++) {
+            Tile tile = tiles.tile(index);
+            if ( tile.isBlank() != TileCode.isBlank(code) ) { continue; }
+            if ( ! tile.isBlank() && tile.value() != TileCode.letter(code) ) { continue; }
+
+            tiles.remove(index);
+            return tile;
+        }
+        return null;
+    }
+}
@@ -20,58 +20,400 @@
 package Game;
 
 import Assistant.util.*;
+import java.io.*;
 import java.util.*;
+import java.util.function.*;
+
+// An ArrayList of Moves, keeping only the best maxMoves of them.  While moves are being
+// added the list is a heap with the worst move kept on top, so a move that does not make
+// the list is turned away at a glance.  Reading the list sorts it, best move first.
+//
+// Anything putting a move at a place of its own choosing, or ordering the list some other
+// way, gets a plain ArrayList until the next add(Move), which takes the list back to a
+// heap of the best maxMoves
+public class MovePackage extends ArrayList<Move> implements MoveSink {
+    private static final long serialVersionUID = 1L;
 
-// An ArrayList of Moves
-public class MovePackage extends ArrayList {
     public static final int MAX_MOVES = 50;
 
-    // Constructor is inherited
-    
-    // Add a move to the list, maintaining only MAX_MOVES
-    public void add(Move move) {
-        if ( this.size() >= MAX_MOVES ) {
-            // Our package is full, determine if this move is worthy of inclusion
-            sort();
+    // Which order the moves are in
+    private static final int HEAP = 0;
+    private static final int RANKED = 1;
+    private static final int GIVEN = 2;
 
-            // Determine where on the list this move would end up based on score
-            int index=0;
-            while ( index < MAX_MOVES && move.score() <= ((Move)this.get(index)).score() ) {
-                if ( ((Move)this.get(index)).equals(move) ) {
-                    return;
-                }
-                index++;
-            }
+    // Lowest ranked first for the heap, highest first for readers
+    private static final MoveComparator COMPARATOR = new MoveComparator();
+    private static final Comparator<Move> RANKING = Collections.reverseOrder(COMPARATOR);
 
-            // This move is less then or equal to everything already on the list, dont add
-            if ( index == MAX_MOVES ) {
-                return;
-            }
+    private final int maxMoves;
+    private int order = RANKED;
 
-            // Finally add the move at the proper position
-            this.add(index, move);
-            this.remove(this.size() - 1);
+    // Moves on the list by where they are played, the tiles played and the word, to keep
+    // out repeats.  Rebuilt when the list goes back to a heap from a given order
+    private HashSet<Placement> placements = new HashSet<Placement>();
+    private Placement probe = new Placement();
 
-        } else {
-            // Package is not full, add the move if it doesnt already exist
-            for (int index=0; index<this.size(); index++) {
-                if ( ((Move)this.get(index)).equals(move) ) {
-                    return;
-                }
-            }
-            this.add((Object)move);
+    public MovePackage() {
+        this(MAX_MOVES);
+    }
+    public MovePackage(int initMaxMoves) {
+        maxMoves = initMaxMoves;
+    }
+
+    public int maxMoves() { return maxMoves; }
+
+    // Add a move to the list, maintaining only maxMoves.  False if the move is already
+    // on the list or did not make it
+    @Override
+    public boolean add(Move move) {
+        heapify();
+        if ( placements.contains(probe.of(move)) ) { return false; }
+
+        if ( super.size() < maxMoves ) {
+            super.add(move);
+            placements.add(new Placement().of(move));
+            siftUp(super.size() - 1);
+            return true;
+        }
+
+        // Our package is full, the move has to beat the worst one to get in
+        if ( maxMoves == 0 || compare(move, super.get(0)) <= 0 ) { return false; }
+
+        placements.remove(probe.of(super.get(0)));
+        super.set(0, move);
+        placements.add(new Placement().of(move));
+        siftDown(0);
+        return true;
+    }
+    @Override
+    public boolean addAll(Collection<? extends Move> moves) {
+        boolean changed = false;
+        for (Move move : moves) {
+            if ( add(move) ) { changed = true; }
+        }
+        return changed;
+    }
+
+    // True if a move with this score could make the list, so a search can skip
+    // building moves that add() would only throw away
+    public boolean accepts(int score) {
+        if ( order == GIVEN ) { heapify(); }
+        if ( super.size() < maxMoves ) { return true; }
+        if ( maxMoves == 0 ) { return false; }
+
+        return score >= least().score();
+    }
+
+    // Searches hand moves over as a MoveSink, only those making the list become Moves
+    public void visit(int row, int col, int direction, char[] word, Tile[] tiles, int start, int length, int score, int tilesPlayed, Rack rack) {
+        if ( ! accepts(score) ) { return; }
+
+        Rack wordRack = new Rack();
+        byte[] tileCodes = new byte[tilesPlayed];
+        for (int index=start; index<start+length; index++) {
+            if ( tiles[index] == null ) { continue; }
+
+            tileCodes[wordRack.size()] = TileCode.code(word[index], tiles[index].isBlank());
+            wordRack.add(tiles[index]);
+        }
+
+        Rack remainingRack = null;
+        if ( rack != null ) {
+            remainingRack = new Rack(rack);
+            remainingRack.remove(wordRack);
         }
+
+        add(new Move(new String(word, start, length), wordRack, tileCodes, remainingRack, row, col, direction, score, tilesPlayed == Rack.MAX_TILES));
+    }
+
+    // A package wants every move it can get
+    public boolean isDone() { return false; }
+
+    // Score of the worst move on the list, 0 if there are none
+    public int lowestScore() {
+        if ( order == GIVEN ) { heapify(); }
+        if ( super.size() == 0 ) { return 0; }
+        return least().score();
     }
 
-    // Sort this list by score, highest to lowest
+    // Sort this list, highest score first
     public void sort() {
-        Collections.sort(this, Collections.reverseOrder(new MoveComparator()));
+        if ( order == RANKED ) { return; }
+        if ( order == GIVEN ) { heapify(); }
+
+        super.sort(RANKING);
+        order = RANKED;
+    }
+
+    // Anything reading the list gets it sorted, unless it was given an order
+    @Override
+    public Move get(int index) {
+        ranked();
+        return super.get(index);
+    }
+    @Override
+    public Iterator<Move> iterator() {
+        ranked();
+        return super.iterator();
+    }
+    @Override
+    public ListIterator<Move> listIterator() {
+        ranked();
+        return super.listIterator();
+    }
+    @Override
+    public ListIterator<Move> listIterator(int index) {
+        ranked();
+        return super.listIterator(index);
+    }
+    @Override
+    public Object[] toArray() {
+        ranked();
+        return super.toArray();
+    }
+    @Override
+    public <T> T[] toArray(T[] array) {
+        ranked();
+        return super.toArray(array);
+    }
+    @Override
+    public Spliterator<Move> spliterator() {
+        ranked();
+        return super.spliterator();
+    }
+    @Override
+    public void forEach(Consumer<? super Move> action) {
+        ranked();
+        super.forEach(action);
+    }
+    @Override
+    public int indexOf(Object move) {
+        ranked();
+        return super.indexOf(move);
+    }
+    @Override
+    public int lastIndexOf(Object move) {
+        ranked();
+        return super.lastIndexOf(move);
+    }
+    @Override
+    public boolean equals(Object object) {
+        ranked();
+        if ( object instanceof MovePackage ) { ((MovePackage) object).ranked(); }
+        return super.equals(object);
+    }
+    @Override
+    public int hashCode() {
+        ranked();
+        return super.hashCode();
+    }
+
+    // A sub-list writes straight through to this one, so it is taken as given
+    @Override
+    public List<Move> subList(int fromIndex, int toIndex) {
+        ranked();
+        order = GIVEN;
+        return super.subList(fromIndex, toIndex);
+    }
+
+    // Taking moves out of a sorted list leaves it sorted
+    @Override
+    public Move remove(int index) {
+        ranked();
+        Move removed = super.remove(index);
+        if ( order == RANKED ) { placements.remove(probe.of(removed)); }
+        return removed;
+    }
+    @Override
+    public boolean remove(Object move) {
+        ranked();
+        if ( ! super.remove(move) ) { return false; }
+        if ( order == RANKED ) { placements.remove(probe.of((Move) move)); }
+        return true;
+    }
+    @Override
+    public boolean removeAll(Collection<?> moves) {
+        ranked();
+        return replaced(super.removeAll(moves));
+    }
+    @Override
+    public boolean retainAll(Collection<?> moves) {
+        ranked();
+        return replaced(super.retainAll(moves));
+    }
+    @Override
+    public boolean removeIf(Predicate<? super Move> filter) {
+        ranked();
+        return replaced(super.removeIf(filter));
+    }
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        ranked();
+        super.removeRange(fromIndex, toIndex);
+        replaced(true);
+    }
+    @Override
+    public void clear() {
+        super.clear();
+        placements.clear();
+        order = RANKED;
+    }
+
+    // Moves put in place, or put in another order, are left there until the next add()
+    @Override
+    public void add(int index, Move move) {
+        ranked();
+        super.add(index, move);
+        order = GIVEN;
+    }
+    @Override
+    public boolean addAll(int index, Collection<? extends Move> moves) {
+        ranked();
+        order = GIVEN;
+        return super.addAll(index, moves);
+    }
+    @Override
+    public Move set(int index, Move move) {
+        ranked();
+        order = GIVEN;
+        return super.set(index, move);
+    }
+    @Override
+    public void replaceAll(UnaryOperator<Move> operator) {
+        ranked();
+        order = GIVEN;
+        super.replaceAll(operator);
+    }
+    @Override
+    public void sort(Comparator<? super Move> comparator) {
+        if ( comparator == null ) {
+            sort();
+            return;
+        }
+
+        ranked();
+        order = GIVEN;
+        super.sort(comparator);
+    }
+
+    // A copy needs placements of its own
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object clone() {
+        MovePackage copy = (MovePackage) super.clone();
+        copy.placements = (HashSet<Placement>) placements.clone();
+        copy.probe = new Placement();
+        return copy;
     }
 
     // Print the list
     public void print() {
         for (int index=0; index<this.size(); index++) {
-            ((Move)this.get(index)).print();
+            this.get(index).print();
+        }
+    }
+
+    // Where a move is played and the tiles played, packed the way MoveList packs them,
+    // and the word.  Lookups reuse one, only moves going on the list get their own
+    private static final class Placement implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private long packed;
+        private String word;
+
+        Placement of(Move move) {
+            packed = MoveList.pack(move);
+            word = move.wordPlayed();
+            return this;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (packed ^ (packed >>> 32)) * 31 + word.hashCode();
+        }
+        @Override
+        public boolean equals(Object object) {
+            if ( ! (object instanceof Placement) ) { return false; }
+
+            Placement other = (Placement) object;
+            return packed == other.packed && word.equals(other.word);
+        }
+    }
+
+    private static int compare(Move a, Move b) {
+        return COMPARATOR.compare(a, b);
+    }
+
+    // Bring the placements back in line with whatever is left on the list
+    private boolean replaced(boolean changed) {
+        if ( changed && order == RANKED ) {
+            placements.clear();
+            for (int index=0; index<super.size(); index++) {
+                placements.add(new Placement().of(super.get(index)));
+            }
+        }
+        return changed;
+    }
+
+    // Readers want the best move first, unless the moves were put in an order
+    private void ranked() {
+        if ( order == HEAP ) { sort(); }
+    }
+
+    // The worst move on the list, which is on top of the heap or last once sorted
+    private Move least() {
+        if ( order == RANKED ) { return super.get(super.size() - 1); }
+        return super.get(0);
+    }
+
+    // Make the list a heap again.  A list sorted best first is a heap once it is
+    // reversed.  Moves in a given order are heaped from scratch, cut back to the best
+    // maxMoves, and have their repeats taken out
+    private void heapify() {
+        if ( order == HEAP ) { return; }
+
+        if ( order == RANKED ) {
+            for (int low=0, high=super.size()-1; low<high; low++, high--) {
+                Move move = super.get(low);
+                super.set(low, super.get(high));
+                super.set(high, move);
+            }
+            order = HEAP;
+            return;
+        }
+
+        Move[] moves = super.toArray(new Move[super.size()]);
+        super.clear();
+        placements.clear();
+        order = HEAP;
+        for (int index=0; index<moves.length; index++) {
+            add(moves[index]);
+        }
+    }
+    private void siftUp(int index) {
+        Move move = super.get(index);
+        while ( index > 0 ) {
+            int parent = (index - 1) / 2;
+            if ( compare(move, super.get(parent)) >= 0 ) { break; }
+
+            super.set(index, super.get(parent));
+            index = parent;
+        }
+        super.set(index, move);
+    }
+    private void siftDown(int index) {
+        Move move = super.get(index);
+        int size = super.size();
+        while ( 2*index + 1 < size ) {
+            int child = 2*index + 1;
+            if ( child + 1 < size && compare(super.get(child + 1), super.get(child)) < 0 ) {
+                child++;
+            }
+            if ( compare(super.get(child), move) >= 0 ) { break; }
+
+            super.set(index, super.get(child));
+            index = child;
         }
+        super.set(index, move);
     }
 }
@@ -0,0 +1,37 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Game;
+
+// Takes the moves a search finds, one at a time and as they are found.  A search hands
+// over its own buffers rather than building a Move, they are only good until visit()
+// returns, so a sink that only counts moves or looks for one never allocates anything
+public interface MoveSink {
+    // True if a move with this score is wanted, searches ask before calling visit()
+    public boolean accepts(int score);
+
+    // A move spelling word[start] up to word[start+length-1] from row,col.  tiles[start+i]
+    // is the rack tile played on the i'th square of the word, or null if the board already
+    // had a tile there.  The score includes any bingo bonus.  The rack is the one searched,
+    // or null if the search does not play onto a board
+    public void visit(int row, int col, int direction, char[] word, Tile[] tiles, int start, int length, int score, int tilesPlayed, Rack rack);
+
+    // True once the sink has everything it wants, searches stop when they see it
+    public boolean isDone();
+}
@@ -0,0 +1,58 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Game;
+
+// A tile as played, packed in a byte: the letter, A through Z as 0 through 25, and a flag
+// for a blank standing in for it.  Unlike a Tile a code never changes, so searches can
+// record blanks without selecting letters on the rack's own tiles
+public final class TileCode {
+    public static final byte BLANK_FLAG = 0x20;
+
+    // A blank that has not been given a letter yet
+    public static final byte UNSET_BLANK = BLANK_FLAG | 26;
+
+    private TileCode() { }
+
+    public static byte code(char letter, boolean blank) {
+        if ( blank ) {
+            if ( letter == Tile.BLANK ) { return UNSET_BLANK; }
+            return (byte) (BLANK_FLAG | (letter - 'A'));
+        }
+        return (byte) (letter - 'A');
+    }
+
+    // The tile as it stands right now
+    public static byte code(Tile tile) {
+        return code(tile.value(), tile.isBlank());
+    }
+
+    public static char letter(byte code) {
+        int index = code & 0x1F;
+        if ( index == 26 ) { return Tile.BLANK; }
+        return (char) ('A' + index);
+    }
+    public static boolean isBlank(byte code) {
+        return (code & BLANK_FLAG) != 0;
+    }
+    public static int points(byte code) {
+        if ( isBlank(code) ) { return 0; }
+        return Bag.points(letter(code));
+    }
+}
@@ -112,7 +112,7 @@ public class GuiBoardGame extends JFrame implements ObjectListener {
         } else if ( o.getEntity() instanceof GuiHandpickTiles ) {
             ((GuiHandpickTiles)o.getEntity()).setVisible(false);
 
-            game.currentDictionary().getConstraint().setContainsLetters(game.rack().toString());
+            game.setCurrentConstraint(game.currentConstraint().withContainsLetters(game.rack().toString()));
             newRack();
             this.setVisible(true);
         }
@@ -22,6 +22,7 @@ package Gui;
 import Dictionary.*;
 import Game.*;
 import java.awt.event.*;
+import java.util.function.*;
 import javax.swing.*;
 
 // Gui for Game.BoardPracticeAndPlay
@@ -69,10 +70,14 @@ public class GuiBoardPracticeAndPlayGame extends GuiBoardPracticeGame {
 
     // Run in a new thread
     public static void main(String args[]) {
-        java.awt.EventQueue.invokeLater(new Runnable() {
-
-            public void run() {
-                new GuiBoardPracticeAndPlayGame(new BoardPracticeAndPlayGame(new Dawg(getClass().getResourceAsStream("/Data/twl.dawg")))).setVisible(true);
+        // Read the dictionary off the EDT, then build the gui once it is ready
+        GuiLoadMonitor.acquire(DictionaryRegistry.MASTER).thenAccept(new Consumer<Lexicon>() {
+            public void accept(final Lexicon dawg) {
+                java.awt.EventQueue.invokeLater(new Runnable() {
+                    public void run() {
+                        new GuiBoardPracticeAndPlayGame(new BoardPracticeAndPlayGame(dawg)).setVisible(true);
+                    }
+                });
             }
         });
     }
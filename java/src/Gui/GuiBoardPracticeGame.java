@@ -22,6 +22,7 @@ import Dictionary.*;
 import Game.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.function.*;
 import javax.swing.*;
 
 // Gui interface to Game.BoardPracticeGame
@@ -89,9 +90,14 @@ public class GuiBoardPracticeGame extends GuiBoardGame implements ActionListener
         this.setResizable(false);
     }
     public static void main(String args[]) {
-        java.awt.EventQueue.invokeLater(new Runnable() {
-            public void run() {
-                new GuiBoardPracticeGame(new BoardPracticeGame(new Dawg(getClass().getResourceAsStream("/Data/twl.dawg")))).setVisible(true);
+        // Read the dictionary off the EDT, then build the gui once it is ready
+        GuiLoadMonitor.acquire(DictionaryRegistry.MASTER).thenAccept(new Consumer<Lexicon>() {
+            public void accept(final Lexicon dawg) {
+                java.awt.EventQueue.invokeLater(new Runnable() {
+                    public void run() {
+                        new GuiBoardPracticeGame(new BoardPracticeGame(dawg)).setVisible(true);
+                    }
+                });
             }
         });
     }
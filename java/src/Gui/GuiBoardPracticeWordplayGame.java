@@ -1,19 +1,29 @@
 package Gui;
 
+import Assistant.util.*;
 import Dictionary.*;
 import Game.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
 import javax.swing.*;
 
 // Simply practice making words from within a single rack
 public class GuiBoardPracticeWordplayGame extends GuiBoardGame implements ActionListener {
-    private ArrayList dawgObjects;
+    private ArrayList<String> dawgNames;
+    private ArrayList<DictionaryConstraint> dawgConstraints;
     private ArrayList dawgDescriptions;
 
     private GuiHandpickTiles guiHandpickTiles;
 
+    // The game's own dictionary, and the sub-list we hold from the registry if one is picked.
+    // Sub-lists arrive in the background, only the last one picked is used
+    private Lexicon allWords;
+    private String currentList;
+    private int listPicks;
+
     public GuiBoardPracticeWordplayGame(BoardPracticeWordplayGame initGame) {
         initGameObjects(initGame);
         initComponents();
@@ -25,44 +35,28 @@ public class GuiBoardPracticeWordplayGame extends GuiBoardGame implements Action
     public void initComponents() {
         setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
 
-        // Store dictionaries
-        dawgObjects = new ArrayList();
+        // Store dictionaries, the sub-lists are only read from the registry
+        // once someone picks them
+        dawgNames = new ArrayList<String>();
+        dawgConstraints = new ArrayList<DictionaryConstraint>();
         dawgDescriptions = new ArrayList();
 
-        dawgObjects.add(new Dawg(getClass().getResourceAsStream("/Data/twl.dawg")));
+        allWords = game().currentDictionary();
+        dawgNames.add(null);
+        dawgConstraints.add(DictionaryConstraint.NONE);
         dawgDescriptions.add(new String("All Words"));
 
-        dawgObjects.add(new Dawg(getClass().getResourceAsStream("/Data/2letterwords.dawg")));
-        dawgDescriptions.add(new String("Two Letter Words"));
-
-        dawgObjects.add(new Dawg(getClass().getResourceAsStream("/Data/3letterwords.dawg")));
-        dawgDescriptions.add(new String("Three Letter Words"));
-
-        dawgObjects.add(new Dawg(getClass().getResourceAsStream("/Data/4letterwords.dawg")));
-        dawgDescriptions.add(new String("Four Letter Words"));
-
-        dawgObjects.add(new Dawg(getClass().getResourceAsStream("/Data/7letterwords.dawg")));
-        dawgDescriptions.add(new String("All Bingos"));
-
-        dawgObjects.add(new Dawg(getClass().getResourceAsStream("/Data/est.dawg")));
-        ((Dawg)dawgObjects.get(dawgObjects.size()-1)).getConstraint().setContainsLetters("EST");
-        dawgDescriptions.add(new String("Bingos ending in EST"));
-
-        dawgObjects.add(new Dawg(getClass().getResourceAsStream("/Data/ing.dawg")));
-        ((Dawg)dawgObjects.get(dawgObjects.size()-1)).getConstraint().setContainsLetters("ING");
-        dawgDescriptions.add(new String("Bingos ending in ING"));
-
-        dawgObjects.add(new Dawg(getClass().getResourceAsStream("/Data/un.dawg")));
-        ((Dawg)dawgObjects.get(dawgObjects.size()-1)).getConstraint().setContainsLetters("UN");
-        dawgDescriptions.add(new String("Bingos beginning with UN"));
-
-        dawgObjects.add(new Dawg(getClass().getResourceAsStream("/Data/out.dawg")));
-        ((Dawg)dawgObjects.get(dawgObjects.size()-1)).getConstraint().setContainsLetters("OUT");
-        dawgDescriptions.add(new String("Bingos beginning with OUT"));
-
-        dawgObjects.add(new Dawg(getClass().getResourceAsStream("/Data/pre.dawg")));
-        ((Dawg)dawgObjects.get(dawgObjects.size()-1)).getConstraint().setContainsLetters("PRE");
-        dawgDescriptions.add(new String("Bingos beginning with PRE"));
+        // Lengths and letters given here let the word finder skip tiles that cannot
+        // make a word in the list, they do not change which words are found
+        addDictionary("2", "Two Letter Words", null, 2);
+        addDictionary("3", "Three Letter Words", null, 3);
+        addDictionary("4", "Four Letter Words", null, 4);
+        addDictionary("7", "All Bingos", null, 7);
+        addDictionary("est", "Bingos ending in EST", "EST", -1);
+        addDictionary("ing", "Bingos ending in ING", "ING", -1);
+        addDictionary("un", "Bingos beginning with UN", "UN", -1);
+        addDictionary("out", "Bingos beginning with OUT", "OUT", -1);
+        addDictionary("pre", "Bingos beginning with PRE", "PRE", -1);
 
         guiMovePackageList().updateList(game().moves(), 30, 15);
         guiBoard().hasHeadings(false);
@@ -121,10 +115,26 @@ public class GuiBoardPracticeWordplayGame extends GuiBoardGame implements Action
         this.setTitle("Word Practice");
         this.setResizable(false);
     }
+    private void addDictionary(String list, String description, String containsLetters, int exactLetters) {
+        DictionaryConstraint constraint = DictionaryConstraint.NONE.withExactLetters(exactLetters);
+        if ( containsLetters != null ) {
+            constraint = constraint.withContainsLetters(containsLetters);
+        }
+
+        dawgNames.add(DictionaryRegistry.MASTER+"/"+list);
+        dawgConstraints.add(constraint);
+        dawgDescriptions.add(description);
+    }
+
     public static void main(String args[]) {
-        java.awt.EventQueue.invokeLater(new Runnable() {
-            public void run() {
-                new GuiBoardPracticeWordplayGame(new BoardPracticeWordplayGame(new Dawg(getClass().getResourceAsStream("/Data/twl.dawg")))).setVisible(true);
+        // Read the dictionary off the EDT, then build the gui once it is ready
+        GuiLoadMonitor.acquire(DictionaryRegistry.MASTER).thenAccept(new Consumer<Lexicon>() {
+            public void accept(final Lexicon dawg) {
+                java.awt.EventQueue.invokeLater(new Runnable() {
+                    public void run() {
+                        new GuiBoardPracticeWordplayGame(new BoardPracticeWordplayGame(dawg)).setVisible(true);
+                    }
+                });
             }
         });
     }
@@ -145,10 +155,45 @@ public class GuiBoardPracticeWordplayGame extends GuiBoardGame implements Action
 
         } else if ( e.getActionCommand().equals("changeWordList") ) {
             JComboBox wordList = (JComboBox) e.getSource();
-            game().setCurrentDictionary((Dawg) dawgObjects.get(wordList.getSelectedIndex()));
+            final String name = dawgNames.get(wordList.getSelectedIndex());
+            final DictionaryConstraint constraint = dawgConstraints.get(wordList.getSelectedIndex());
+            final int pick = ++listPicks;
+
+            // The master is the game's own, sub-lists are held for as long as they are picked
+            if ( name == null ) {
+                useWordList(null, allWords, constraint);
+                return;
+            }
 
-            newRack();
+            // Read the sub-list off the EDT, then switch to it back on the EDT
+            GuiLoadMonitor.acquire(name).whenComplete(new BiConsumer<Lexicon, Throwable>() {
+                public void accept(final Lexicon dictionary, final Throwable ex) {
+                    SwingUtilities.invokeLater(new Runnable() {
+                        public void run() {
+                            // Stay with the current dictionary if this one could not be
+                            // read, or something else was picked in the meantime
+                            if ( ex != null || pick != listPicks ) {
+                                DictionaryRegistry.shared().release(name);
+                                return;
+                            }
+                            useWordList(name, dictionary, constraint);
+                        }
+                    });
+                }
+            });
         }
     }
 
+    // Play from a dictionary, letting go of the sub-list held before
+    private void useWordList(String name, Lexicon dictionary, DictionaryConstraint constraint) {
+        if ( currentList != null ) {
+            DictionaryRegistry.shared().release(currentList);
+        }
+        currentList = name;
+
+        game().setCurrentDictionary(dictionary, constraint);
+
+        newRack();
+    }
+
 }
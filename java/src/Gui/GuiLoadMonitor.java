@@ -0,0 +1,90 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package Gui;
+
+import Dictionary.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.logging.*;
+import javax.swing.*;
+
+// Show a progress bar while a dictionary loads in the background.
+// Updates can come from any thread, the monitor itself is only touched on the EDT
+public class GuiLoadMonitor implements LoadListener {
+    private ProgressMonitor monitor;
+    private String message;
+
+    // Only bother the EDT when the percentage actually changes
+    private int lastPercent;
+
+    public GuiLoadMonitor(String initMessage) {
+        message = initMessage;
+        lastPercent = -1;
+    }
+
+    // Get a dictionary from the shared registry, with a progress bar attached if it
+    // has to be read.  Failures are logged and reported to the user, the future still fails
+    public static CompletableFuture<Lexicon> acquire(String name) {
+        return reported(name, DictionaryRegistry.shared().acquire(name, new GuiLoadMonitor("Reading Dictionary")));
+    }
+
+    private static <T> CompletableFuture<T> reported(final String name, CompletableFuture<T> dictionary) {
+        dictionary.whenComplete(new BiConsumer<T, Throwable>() {
+            public void accept(T dawg, Throwable ex) {
+                if ( ex == null ) { return; }
+
+                Logger.getLogger(GuiLoadMonitor.class.getName()).log(Level.SEVERE, name, ex);
+                SwingUtilities.invokeLater(new Runnable() {
+                    public void run() {
+                        JOptionPane.showMessageDialog(null, "Unable to read dictionary "+name, "Inane error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
+            }
+        });
+        return dictionary;
+    }
+
+    public void progress(long bytesRead, long totalBytes) {
+        if ( totalBytes <= 0 ) { return; }
+
+        final int percent = (int) Math.min(100, bytesRead * 100 / totalBytes);
+        if ( percent == lastPercent ) { return; }
+        lastPercent = percent;
+
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                if ( monitor == null ) {
+                    monitor = new ProgressMonitor(null, message, null, 0, 100);
+                }
+                monitor.setProgress(percent);
+            }
+        });
+    }
+
+    public void finished() {
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                if ( monitor != null ) {
+                    monitor.close();
+                }
+            }
+        });
+    }
+}
@@ -96,7 +96,7 @@ public class GuiMovePackageList extends JPanel {
 
                     if (doneGuessing || movesGuessed[moveIndex]) {
                         if (moveIndex < moves.size()) {
-                            moveSelected = (Move) moves.get(moveIndex);
+                            moveSelected = moves.get(moveIndex);
                             eventHandler.callback();
                         }
                     }
@@ -149,7 +149,7 @@ public class GuiMovePackageList extends JPanel {
         if ( move == null ) { return; }
 
         for (int count=0; count<MOVES && count<moves.size(); count++) {
-            Move compareMove = (Move)moves.get(count);
+            Move compareMove = moves.get(count);
             if ( compareMove.equals(move) ) {
                 String formattedString = new Integer(count+1).toString()+".   ";
                 formattedString = formattedString.substring(0, 4);
@@ -172,7 +172,7 @@ public class GuiMovePackageList extends JPanel {
         int count = MOVES;
         while ( count >= moves.size() ) { count--; }
         while ( count >= 0 ) {
-            Move compareMove = (Move)moves.get(count);
+            Move compareMove = moves.get(count);
             if ( compareMove.wordPlayed().equals(move) ) {
                 String formattedString = new Integer(count+1).toString()+".   ";
                 formattedString = formattedString.substring(0, 4);
@@ -192,7 +192,7 @@ public class GuiMovePackageList extends JPanel {
         list.setCellRenderer(showingCellRenderer);
         list.clearSelection();
         for (int count = 0; count<MOVES && count<moves.size(); count++) {
-            Move move = (Move) moves.get(count);
+            Move move = moves.get(count);
             String formattedString = new Integer(count + 1).toString() + ".   ";
             formattedString = formattedString.substring(0, 4);
             formattedString += move.toString();
@@ -0,0 +1,153 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package TESTING;
+
+import Assistant.*;
+import Dictionary.*;
+import Game.*;
+import java.io.*;
+import java.util.*;
+
+// Time the anchor search in WordPlay.boardFindall against the original scan of every
+// square, and the GADDAG search against both, on the same positions.  Positions come
+// from games played a random number of turns in, and are timed again on their own
+// once the board is crowded.  The GADDAG search is also timed into sinks that only
+// count the moves or look for a bingo, which build no Moves at all, and into a MoveList
+// that keeps every move found packed into a long.  The best move and best ten are also
+// timed with boardFindallBest, which gives up on branches that cannot make the list.
+// Times are the median of Timing.RUNS runs after Timing.WARMUPS untimed ones.
+// Run with an optional .dawg and .gaddag file, otherwise /Data/twl.dawg and
+// /Data/twl.gaddag are used
+public class BoardFindallBenchmark {
+    private static final int POSITIONS = 100;
+    private static final int MAX_TURNS = 20;
+    private static final int DENSE_TILES = 40;
+
+    private Lexicon dawg;
+    private Lexicon gaddag;
+    private ArrayList<BoardPracticeAndPlayGame> games;
+    private ArrayList<BoardPracticeAndPlayGame> denseGames;
+
+    public BoardFindallBenchmark(InputStream dawgStream, InputStream gaddagStream) {
+        dawg = new FlatDawg(dawgStream);
+        gaddag = new FlatGaddag(gaddagStream);
+
+        Random rand = new Random(1);
+        games = new ArrayList<BoardPracticeAndPlayGame>();
+        denseGames = new ArrayList<BoardPracticeAndPlayGame>();
+        while ( games.size() < POSITIONS ) {
+            BoardPracticeAndPlayGame game = Positions.play(dawg, rand, 1 + rand.nextInt(MAX_TURNS));
+            games.add(game);
+            if ( tilesOnBoard(game.board()) >= DENSE_TILES ) { denseGames.add(game); }
+        }
+    }
+
+    private static int tilesOnBoard(Board board) {
+        int tiles = 0;
+        for (int row=0; row<Board.MAX_ROWS; row++) {
+            for (int col=0; col<Board.MAX_COLUMNS; col++) {
+                if ( board.tile(row, col) != null ) { tiles++; }
+            }
+        }
+        return tiles;
+    }
+
+    private abstract class Search {
+        String name;
+        Search(String name) { this.name = name; }
+        abstract void find(Board board, Rack rack);
+    }
+
+    public void run() {
+        Search[] searches = {
+            new Search("boardFindallScan") {
+                void find(Board board, Rack rack) { WordPlay.boardFindallScan(board, rack, dawg); }
+            },
+            new Search("boardFindall") {
+                void find(Board board, Rack rack) { WordPlay.boardFindall(board, rack, dawg); }
+            },
+            new Search("boardFindall gaddag") {
+                void find(Board board, Rack rack) { WordPlay.boardFindall(board, rack, gaddag); }
+            },
+            new Search("gaddag MoveCounter") {
+                void find(Board board, Rack rack) { WordPlay.boardFindall(board, rack, gaddag, new MoveCounter()); }
+            },
+            new Search("gaddag BingoFinder") {
+                void find(Board board, Rack rack) { WordPlay.boardFindall(board, rack, gaddag, new BingoFinder()); }
+            },
+            new Search("gaddag MoveList") {
+                void find(Board board, Rack rack) { WordPlay.boardFindall(board, rack, gaddag, new MoveList(board, rack)); }
+            },
+            new Search("boardFindallBest 10") {
+                void find(Board board, Rack rack) { WordPlay.boardFindallBest(board, rack, dawg, 10); }
+            },
+            new Search("gaddag best 1") {
+                void find(Board board, Rack rack) { WordPlay.boardFindallBest(board, rack, gaddag, 1); }
+            },
+            new Search("gaddag best 10") {
+                void find(Board board, Rack rack) { WordPlay.boardFindallBest(board, rack, gaddag, 10); }
+            },
+        };
+
+        System.out.println(games.size() + " positions");
+        for (Search search : searches) { report(search, games); }
+
+        if ( denseGames.isEmpty() ) { return; }
+        System.out.println(denseGames.size() + " positions with at least " + DENSE_TILES + " tiles down");
+        for (Search search : searches) { report(search, denseGames); }
+    }
+
+    private void report(final Search search, final ArrayList<BoardPracticeAndPlayGame> positions) {
+        Timing.Trial trial = new Timing.Trial() {
+            public long run() { return measure(search, positions); }
+        };
+        long elapsed = Timing.median(trial);
+        System.out.printf("%-20s %8.3f ms %10.1f KB per position%n", search.name,
+                elapsed / 1e6 / positions.size(), Timing.allocated(trial) / 1024.0 / positions.size());
+    }
+
+    // Elapsed nanoseconds for one pass over the positions
+    private long measure(Search search, ArrayList<BoardPracticeAndPlayGame> positions) {
+        long start = System.nanoTime();
+        for (int index=0; index<positions.size(); index++) {
+            BoardPracticeAndPlayGame game = positions.get(index);
+            search.find(game.board(), game.rack());
+        }
+        return System.nanoTime() - start;
+    }
+
+    public static void main(String args[]) throws IOException {
+        InputStream dawgStream;
+        if ( args.length > 0 ) {
+            dawgStream = new FileInputStream(args[0]);
+        } else {
+            dawgStream = BoardFindallBenchmark.class.getResourceAsStream("/Data/twl.dawg");
+        }
+
+        InputStream gaddagStream;
+        if ( args.length > 1 ) {
+            gaddagStream = new FileInputStream(args[1]);
+        } else {
+            gaddagStream = BoardFindallBenchmark.class.getResourceAsStream("/Data/twl.gaddag");
+        }
+
+        new BoardFindallBenchmark(dawgStream, gaddagStream).run();
+    }
+}
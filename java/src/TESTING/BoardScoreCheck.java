@@ -0,0 +1,131 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package TESTING;
+
+import Assistant.*;
+import Dictionary.*;
+import Game.*;
+import java.io.*;
+import java.util.*;
+
+// Check the scores the move searches add up as they go against Board.score.  Positions
+// come from games played a random number of turns in.  Every move each search finds is
+// staged on the board and scored the way a played move is, through WordPlay.boardMakeMove,
+// which also has to agree that the move is legal.
+// Run with an optional .dawg file, .gaddag file and random seed, otherwise /Data/twl.dawg
+// and /Data/twl.gaddag are used
+public class BoardScoreCheck {
+    private static final int POSITIONS = 200;
+    private static final int MAX_TURNS = 20;
+    private static final int MAX_REPORTED = 10;
+
+    private Lexicon dawg;
+    private Lexicon gaddag;
+    private long seed;
+
+    private int checked;
+    private int failed;
+
+    public BoardScoreCheck(InputStream dawgStream, InputStream gaddagStream, long initSeed) {
+        dawg = new FlatDawg(dawgStream);
+        gaddag = new FlatGaddag(gaddagStream);
+        seed = initSeed;
+    }
+
+    private abstract class Search {
+        String name;
+        Search(String name) { this.name = name; }
+        abstract void find(Board board, Rack rack, MovePackage moveList);
+    }
+
+    public boolean run() {
+        Search[] searches = {
+            new Search("boardFindallScan") {
+                void find(Board board, Rack rack, MovePackage moveList) { WordPlay.boardFindallScan(board, rack, dawg, moveList); }
+            },
+            new Search("boardFindall") {
+                void find(Board board, Rack rack, MovePackage moveList) { WordPlay.boardFindall(board, rack, dawg, moveList); }
+            },
+            new Search("boardFindall gaddag") {
+                void find(Board board, Rack rack, MovePackage moveList) { WordPlay.boardFindall(board, rack, gaddag, moveList); }
+            },
+        };
+
+        Random rand = new Random(seed);
+        for (int position=0; position<POSITIONS; position++) {
+            BoardPracticeAndPlayGame game = Positions.play(dawg, rand, rand.nextInt(MAX_TURNS));
+            for (Search search : searches) { check(search, game); }
+        }
+
+        System.out.println(POSITIONS + " positions, " + checked + " moves checked, " + failed + " wrong");
+        return failed == 0;
+    }
+
+    // Score every move the search finds, not just the ones a MovePackage would keep
+    private void check(Search search, BoardPracticeAndPlayGame game) {
+        final ArrayList<Move> moves = new ArrayList<Move>();
+        search.find(game.board(), game.rack(), new MovePackage() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean add(Move move) { return moves.add(move); }
+        });
+
+        for (int index=0; index<moves.size(); index++) {
+            Move move = moves.get(index);
+            game.stageMove(move);
+            Move played = game.finishPlayingTiles();
+            checked++;
+
+            if ( played != null && played.score() == move.score() && played.isBingo() == move.isBingo() ) { continue; }
+
+            failed++;
+            if ( failed > MAX_REPORTED ) { continue; }
+            if ( played == null ) {
+                System.out.println(search.name + ": " + move + " is not a legal play");
+            } else {
+                System.out.println(search.name + ": " + move + " scored " + move.score() + ", Board.score gives " + played.score());
+            }
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+        InputStream dawgStream;
+        if ( args.length > 0 ) {
+            dawgStream = new FileInputStream(args[0]);
+        } else {
+            dawgStream = BoardScoreCheck.class.getResourceAsStream("/Data/twl.dawg");
+        }
+
+        InputStream gaddagStream;
+        if ( args.length > 1 ) {
+            gaddagStream = new FileInputStream(args[1]);
+        } else {
+            gaddagStream = BoardScoreCheck.class.getResourceAsStream("/Data/twl.gaddag");
+        }
+
+        long seed = 1;
+        if ( args.length > 2 ) { seed = Long.parseLong(args[2]); }
+
+        if ( ! new BoardScoreCheck(dawgStream, gaddagStream, seed).run() ) {
+            System.exit(1);
+        }
+    }
+}
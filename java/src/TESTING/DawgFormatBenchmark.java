@@ -0,0 +1,163 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package TESTING;
+
+import Dictionary.*;
+import java.io.*;
+import java.util.*;
+
+// Compare version 1 and version 2 dictionary files: size, load time, and lookups
+// through FlatDawg and MappedDawg.  Run with an optional .dawg or .gaddag file in the
+// version 1 format, otherwise /Data/twl.dawg is used.  Lookups must agree across all four.
+// Times are the median of Timing.RUNS runs after Timing.WARMUPS untimed ones
+public class DawgFormatBenchmark {
+    private static final int WORDS = 20000;
+    private static final int ROUNDS = 10;
+
+    private File version1;
+    private File version2;
+    private String[] words;
+
+    public DawgFormatBenchmark(File initVersion1) throws IOException {
+        version1 = initVersion1;
+        version2 = File.createTempFile("benchmark", ".dawg");
+        version2.deleteOnExit();
+
+        FlatDawg dawg = new FlatDawg(new FileInputStream(version1));
+        OutputStream os = new BufferedOutputStream(new FileOutputStream(version2));
+        try {
+            DawgFormat.write(dawg, os);
+        } finally {
+            os.close();
+        }
+
+        // Half real words, half the same words with a letter changed
+        ArrayList<String> found = new ArrayList<String>();
+        collect(dawg, dawg.root(), new char[32], 0, found);
+        Collections.shuffle(found, new Random(1));
+
+        int count = Math.min(WORDS, found.size());
+        words = new String[count * 2];
+        for (int index=0; index<count; index++) {
+            char[] word = found.get(index).toCharArray();
+            words[index*2] = new String(word);
+
+            word[word.length/2] = (char) ('A' + (word[word.length/2] - 'A' + 7) % 26);
+            words[index*2+1] = new String(word);
+        }
+    }
+
+    // Gather words from the dictionary by walking every path
+    private static void collect(Lexicon dawg, int node, char[] word, int length, ArrayList<String> found) {
+        for (int child=dawg.child(node); child!=Lexicon.NONE && length<word.length; child=dawg.sibling(child)) {
+            word[length] = dawg.value(child);
+            if ( dawg.isTerminal(child) ) {
+                found.add(new String(word, 0, length+1));
+            }
+            collect(dawg, child, word, length+1, found);
+        }
+    }
+
+    public void run() throws IOException {
+        System.out.println("version 1 " + version1.length() + " bytes, version 2 " + version2.length() + " bytes");
+
+        System.out.printf("%-30s %8.2f ms%n", "FlatDawg load version 1", load(version1) / 1e6);
+        System.out.printf("%-30s %8.2f ms%n", "FlatDawg load version 2", load(version2) / 1e6);
+
+        Lexicon[] lexicons = {
+            new FlatDawg(new FileInputStream(version1)), new FlatDawg(new FileInputStream(version2)),
+            new MappedDawg(version1), new MappedDawg(version2),
+        };
+        String[] names = { "FlatDawg version 1", "FlatDawg version 2", "MappedDawg version 1", "MappedDawg version 2" };
+
+        final boolean[] expected = new boolean[words.length];
+        for (int index=0; index<words.length; index++) {
+            expected[index] = lexicons[0].validWord(words[index]);
+        }
+
+        System.out.println(words.length + " lookups, " + ROUNDS + " rounds per run");
+        for (int lexicon=0; lexicon<lexicons.length; lexicon++) {
+            final Lexicon dictionary = lexicons[lexicon];
+            long elapsed = Timing.median(new Timing.Trial() {
+                public long run() { return lookups(dictionary, expected); }
+            });
+            long calls = (long) words.length * ROUNDS;
+            System.out.printf("%-30s %8.1f ns/call%n", names[lexicon], (double) elapsed / calls);
+        }
+    }
+
+    // Nanoseconds to read the file into a FlatDawg
+    private long load(final File file) {
+        return Timing.median(new Timing.Trial() {
+            public long run() {
+                long start = System.nanoTime();
+                try {
+                    InputStream is = new FileInputStream(file);
+                    try {
+                        new FlatDawg(is);
+                    } finally {
+                        is.close();
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                return System.nanoTime() - start;
+            }
+        });
+    }
+
+    // Elapsed nanoseconds for one run, every answer checked against the first dictionary
+    private long lookups(Lexicon lexicon, boolean[] expected) {
+        long start = System.nanoTime();
+        for (int round=0; round<ROUNDS; round++) {
+            for (int index=0; index<words.length; index++) {
+                if ( lexicon.validWord(words[index]) != expected[index] ) {
+                    throw new IllegalStateException("Formats disagree on " + words[index]);
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    public static void main(String args[]) throws IOException {
+        File file;
+        if ( args.length > 0 ) {
+            file = new File(args[0]);
+        } else {
+            // MappedDawg needs a real file, so copy the resource out
+            file = File.createTempFile("twl", ".dawg");
+            file.deleteOnExit();
+            InputStream is = DawgFormatBenchmark.class.getResourceAsStream("/Data/twl.dawg");
+            OutputStream os = new FileOutputStream(file);
+            try {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ( (read = is.read(buffer)) > 0 ) {
+                    os.write(buffer, 0, read);
+                }
+            } finally {
+                is.close();
+                os.close();
+            }
+        }
+
+        new DawgFormatBenchmark(file).run();
+    }
+}
@@ -0,0 +1,120 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package TESTING;
+
+import Dictionary.*;
+import java.io.*;
+import java.util.*;
+
+// Check a MultiLexicon file with as many sub-lists as it can hold.  The last sub-list
+// lands in bit 31 of the terminal field, so a word in it has a negative terminal
+// value, and every loader still has to read that word as part of the master list.
+// ZZ is in every sub-list, which makes its terminal value -1
+public class MultiLexiconCheck {
+    private static final String EVERYWHERE = "ZZ";
+
+    private String[] words;
+    private String[] names;
+    private File file;
+    private int failed;
+
+    public MultiLexiconCheck() throws IOException {
+        // Sub-list i holds word i and ZZ
+        words = new String[MultiLexicon.MAX_LISTS];
+        names = new String[MultiLexicon.MAX_LISTS];
+        Lexicon[] subLists = new Lexicon[MultiLexicon.MAX_LISTS];
+        for (int list=0; list<words.length; list++) {
+            words[list] = "Q" + (char) ('A' + list % 26) + (char) ('A' + list / 26);
+            names[list] = "list" + list;
+            subLists[list] = build(new String[] { words[list], EVERYWHERE });
+        }
+
+        String[] all = Arrays.copyOf(words, words.length + 1);
+        all[words.length] = EVERYWHERE;
+        Lexicon master = build(all);
+
+        file = File.createTempFile("multi", ".dawg");
+        file.deleteOnExit();
+        OutputStream os = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            MultiLexicon.write(master, subLists, os);
+        } finally {
+            os.close();
+        }
+    }
+
+    private static Lexicon build(String[] list) {
+        String[] sorted = list.clone();
+        Arrays.sort(sorted);
+
+        DictionaryBuilder builder = new DictionaryBuilder();
+        for (int index=0; index<sorted.length; index++) {
+            builder.add(sorted[index]);
+        }
+        return builder.flatDawg();
+    }
+
+    public boolean run() throws IOException {
+        MultiLexicon multi = new MultiLexicon(new FileInputStream(file), names);
+
+        // Every loader must see the whole master list
+        checkMaster("FlatDawg", new FlatDawg(new FileInputStream(file)));
+        checkMaster("MappedDawg", new MappedDawg(file));
+        checkMaster("MultiLexicon", multi);
+
+        Dawg dawg = new Dawg(new FileInputStream(file));
+        for (int list=0; list<=words.length; list++) {
+            String word = list < words.length ? words[list] : EVERYWHERE;
+            expect("Dawg", word, dawg.validWord(word), true);
+        }
+
+        // Each view only has its own word, and ZZ
+        for (int list=0; list<words.length; list++) {
+            LexiconView view = multi.view(names[list]);
+            expect(names[list], EVERYWHERE, view.validWord(EVERYWHERE), true);
+            for (int other=0; other<words.length; other++) {
+                expect(names[list], words[other], view.validWord(words[other]), other == list);
+            }
+        }
+
+        System.out.println(words.length + " sub-lists, " + failed + " wrong");
+        return failed == 0;
+    }
+
+    private void checkMaster(String name, Lexicon lexicon) {
+        for (int list=0; list<words.length; list++) {
+            expect(name, words[list], lexicon.validWord(words[list]), true);
+        }
+        expect(name, EVERYWHERE, lexicon.validWord(EVERYWHERE), true);
+    }
+
+    private void expect(String name, String word, boolean found, boolean wanted) {
+        if ( found != wanted ) {
+            System.out.println(name + ": " + word + (wanted ? " missing" : " should not be there"));
+            failed++;
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+        if ( !new MultiLexiconCheck().run() ) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package TESTING;
+
+import Assistant.*;
+import Dictionary.*;
+import Game.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Time WordPlay.boardFindall on one thread against the same search split across a
+// ForkJoinPool of 1, 2, 4 ... threads, on positions from games played until a blank is
+// drawn, where the search spends the longest.  Every parallel result has to match the
+// single thread one move for move.  Times are the median of Timing.RUNS runs after
+// Timing.WARMUPS untimed ones.
+// The target is close to linear speed-up up to at least 8 threads.  That has not been
+// met yet, only shown on a single core, where every pool size runs within noise of one
+// thread.
+// Run with an optional .dawg and .gaddag file, otherwise /Data/twl.dawg and
+// /Data/twl.gaddag are used, and the most threads to try
+public class ParallelBoardFindallBenchmark {
+    private static final int POSITIONS = 50;
+    private static final int MAX_TURNS = 20;
+
+    private Lexicon dawg;
+    private Lexicon gaddag;
+    private ArrayList<CrossCheckTable> boards;
+    private ArrayList<Rack> racks;
+
+    public ParallelBoardFindallBenchmark(InputStream dawgStream, InputStream gaddagStream) {
+        dawg = new FlatDawg(dawgStream);
+        gaddag = new FlatGaddag(gaddagStream);
+
+        Random rand = new Random(1);
+        boards = new ArrayList<CrossCheckTable>();
+        racks = new ArrayList<Rack>();
+        while ( boards.size() < POSITIONS ) {
+            BoardPracticeAndPlayGame game = Positions.playUntilBlank(dawg, rand, 1 + rand.nextInt(MAX_TURNS));
+            if ( ! Positions.hasBlank(game.rack()) ) { continue; }
+
+            boards.add(new CrossCheckTable(game.board()));
+            racks.add(game.rack());
+        }
+    }
+
+    private abstract class Search {
+        String name;
+        Search(String name) { this.name = name; }
+        abstract void find(CrossCheckTable crossChecks, Rack rack, Lexicon dawg, MovePackage moves);
+    }
+
+    public boolean run(int maxThreads) {
+        Search serial = new Search("1 thread") {
+            void find(CrossCheckTable crossChecks, Rack rack, Lexicon dawg, MovePackage moves) {
+                WordPlay.boardFindall(crossChecks, rack, dawg, moves);
+            }
+        };
+        ArrayList<Search> searches = new ArrayList<Search>();
+        for (int threads=1; threads<=maxThreads; threads*=2) {
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            searches.add(new Search(threads + " thread pool") {
+                void find(CrossCheckTable crossChecks, Rack rack, Lexicon dawg, MovePackage moves) {
+                    WordPlay.boardFindall(crossChecks, rack, dawg, moves, pool);
+                }
+            });
+        }
+
+        boolean same = true;
+        Lexicon[] dictionaries = { dawg, gaddag };
+        String[] names = { "dawg", "gaddag" };
+        for (int index=0; index<dictionaries.length; index++) {
+            Lexicon dictionary = dictionaries[index];
+
+            double serialTime = measure(serial, dictionary);
+            System.out.printf("%-8s %-16s %8.3f ms per position%n", names[index], serial.name, serialTime / 1e6 / boards.size());
+            for (int search=0; search<searches.size(); search++) {
+                Search parallel = searches.get(search);
+                double time = measure(parallel, dictionary);
+                System.out.printf("%-8s %-16s %8.3f ms per position %6.2fx%n", names[index], parallel.name, time / 1e6 / boards.size(), serialTime / time);
+
+                if ( ! sameMoves(serial, parallel, dictionary) ) {
+                    System.out.println(names[index] + " " + parallel.name + " did not find the same moves");
+                    same = false;
+                }
+            }
+        }
+        return same;
+    }
+
+    private long measure(final Search search, final Lexicon dictionary) {
+        return Timing.median(new Timing.Trial() {
+            public long run() {
+                long start = System.nanoTime();
+                for (int index=0; index<boards.size(); index++) {
+                    search.find(boards.get(index), racks.get(index), dictionary, new MovePackage());
+                }
+                return System.nanoTime() - start;
+            }
+        });
+    }
+
+    private boolean sameMoves(Search serial, Search parallel, Lexicon dictionary) {
+        for (int index=0; index<boards.size(); index++) {
+            MovePackage expected = new MovePackage();
+            MovePackage found = new MovePackage();
+            serial.find(boards.get(index), racks.get(index), dictionary, expected);
+            parallel.find(boards.get(index), racks.get(index), dictionary, found);
+
+            if ( expected.size() != found.size() ) { return false; }
+            for (int move=0; move<expected.size(); move++) {
+                Move expectedMove = expected.get(move);
+                Move foundMove = found.get(move);
+                if ( ! expectedMove.toString().equals(foundMove.toString()) || expectedMove.direction() != foundMove.direction() ) { return false; }
+                if ( ! expectedMove.tilesPlayed().toString().equals(foundMove.tilesPlayed().toString()) ) { return false; }
+            }
+        }
+        return true;
+    }
+
+    public static void main(String args[]) throws IOException {
+        InputStream dawgStream;
+        if ( args.length > 0 ) {
+            dawgStream = new FileInputStream(args[0]);
+        } else {
+            dawgStream = ParallelBoardFindallBenchmark.class.getResourceAsStream("/Data/twl.dawg");
+        }
+
+        InputStream gaddagStream;
+        if ( args.length > 1 ) {
+            gaddagStream = new FileInputStream(args[1]);
+        } else {
+            gaddagStream = ParallelBoardFindallBenchmark.class.getResourceAsStream("/Data/twl.gaddag");
+        }
+
+        int maxThreads = 8;
+        if ( args.length > 2 ) { maxThreads = Integer.parseInt(args[2]); }
+
+        if ( ! new ParallelBoardFindallBenchmark(dawgStream, gaddagStream).run(maxThreads) ) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package TESTING;
+
+import Dictionary.*;
+import Game.*;
+import java.util.*;
+
+// Positions for the board searches to work on, from games where each turn a move is
+// picked at random from the ones the game offers
+public class Positions {
+    // A new game some number of turns in, fewer if it runs out of moves
+    public static BoardPracticeAndPlayGame play(Lexicon dawg, Random rand, int turns) {
+        return play(dawg, rand, turns, false);
+    }
+
+    // Same, stopping early once a blank is drawn, where the searches spend the longest
+    public static BoardPracticeAndPlayGame playUntilBlank(Lexicon dawg, Random rand, int turns) {
+        return play(dawg, rand, turns, true);
+    }
+
+    public static boolean hasBlank(Rack rack) {
+        for (int index=0; index<rack.size(); index++) {
+            if ( rack.tile(index).isBlank() ) { return true; }
+        }
+        return false;
+    }
+
+    private static BoardPracticeAndPlayGame play(Lexicon dawg, Random rand, int turns, boolean untilBlank) {
+        BoardPracticeAndPlayGame game = new BoardPracticeAndPlayGame(dawg);
+        for (int turn=0; turn<turns && ! game.moves().isEmpty(); turn++) {
+            if ( untilBlank && hasBlank(game.rack()) ) { break; }
+
+            game.stageMove(game.moves().get(rand.nextInt(game.moves().size())));
+            game.commitMove();
+        }
+        return game;
+    }
+}
@@ -0,0 +1,61 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package TESTING;
+
+import java.lang.management.*;
+import java.util.*;
+
+// How the benchmarks time things.  Each case is run a fixed number of times untimed,
+// so the JIT has compiled it before anything counts, then timed a fixed number of
+// times.  The median run is reported, which a collection or a late compile in one
+// run does not move the way it moves an average or a best
+public class Timing {
+    public static final int WARMUPS = 5;
+    public static final int RUNS = 9;
+
+    // One run of a case, returning the nanoseconds it took
+    public static abstract class Trial {
+        public abstract long run();
+    }
+
+    // Nanoseconds taken by the median run, after the warmups
+    public static long median(Trial trial) {
+        for (int warmup=0; warmup<WARMUPS; warmup++) {
+            trial.run();
+        }
+
+        long[] times = new long[RUNS];
+        for (int run=0; run<RUNS; run++) {
+            times[run] = trial.run();
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    // Bytes this thread allocates in one run, best taken once the case is warmed up
+    public static long allocated(Trial trial) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long bytes = threads.getThreadAllocatedBytes(threadId);
+        trial.run();
+        return threads.getThreadAllocatedBytes(threadId) - bytes;
+    }
+}
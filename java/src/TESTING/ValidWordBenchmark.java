@@ -0,0 +1,130 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package TESTING;
+
+import Dictionary.*;
+import java.io.*;
+import java.util.*;
+
+// Measure time and heap allocation per validWord() call for each way of asking, the
+// time being the median of Timing.RUNS runs after Timing.WARMUPS untimed ones.
+// Run with an optional .dawg file, otherwise /Data/twl.dawg is used
+public class ValidWordBenchmark {
+    private static final int WORDS = 20000;
+    private static final int ROUNDS = 10;
+
+    private Dawg dawg;
+    private String[] words;
+    private char[][] letters;
+
+    public ValidWordBenchmark(InputStream is) {
+        dawg = new Dawg(is);
+
+        // Half real words, half the same words with a letter changed
+        ArrayList<String> found = new ArrayList<String>();
+        collect(dawg, new char[32], 0, found);
+        Collections.shuffle(found, new Random(1));
+
+        int count = Math.min(WORDS, found.size());
+        words = new String[count * 2];
+        letters = new char[count * 2][];
+        for (int index=0; index<count; index++) {
+            char[] word = found.get(index).toCharArray();
+            words[index*2] = new String(word);
+
+            word[word.length/2] = (char) ('A' + (word[word.length/2] - 'A' + 7) % 26);
+            words[index*2+1] = new String(word);
+        }
+        for (int index=0; index<words.length; index++) {
+            letters[index] = words[index].toCharArray();
+        }
+    }
+
+    // Gather words from the dictionary by walking every path
+    private static void collect(Dawg node, char[] word, int length, ArrayList<String> found) {
+        Dawg nextChild = node.child();
+        while ( nextChild != null && length < word.length ) {
+            word[length] = nextChild.value();
+            if ( nextChild.isTerminal() ) {
+                found.add(new String(word, 0, length+1));
+            }
+            collect(nextChild, word, length+1, found);
+            nextChild = nextChild.sibling();
+        }
+    }
+
+    private abstract class Query {
+        String name;
+        Query(String name) { this.name = name; }
+        abstract boolean valid(int index);
+    }
+
+    public void run() {
+        Query[] queries = {
+            new Query("validWordRecurse(String)") {
+                boolean valid(int index) { return dawg.validWordRecurse(words[index]); }
+            },
+            new Query("validWord(CharSequence)") {
+                boolean valid(int index) { return dawg.validWord(words[index]); }
+            },
+            new Query("validWord(char[], off, len)") {
+                boolean valid(int index) { return dawg.validWord(letters[index], 0, letters[index].length); }
+            },
+        };
+
+        System.out.println(words.length + " lookups, " + ROUNDS + " rounds per run");
+        for (final Query query : queries) {
+            Timing.Trial trial = new Timing.Trial() {
+                public long run() { return measure(query); }
+            };
+            long elapsed = Timing.median(trial);
+            long calls = (long) words.length * ROUNDS;
+            System.out.printf("%-30s %8.1f ns/call %8.2f bytes/call%n", query.name, (double) elapsed / calls, (double) Timing.allocated(trial) / calls);
+        }
+    }
+
+    // Elapsed nanoseconds for one run
+    private long measure(Query query) {
+        int valid = 0;
+        long start = System.nanoTime();
+        for (int round=0; round<ROUNDS; round++) {
+            for (int index=0; index<words.length; index++) {
+                if ( query.valid(index) ) { valid++; }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // Keep the result alive so the loop is not optimized away
+        if ( valid == 0 ) { System.out.println("No valid words found"); }
+
+        return elapsed;
+    }
+
+    public static void main(String args[]) throws IOException {
+        InputStream is;
+        if ( args.length > 0 ) {
+            is = new FileInputStream(args[0]);
+        } else {
+            is = ValidWordBenchmark.class.getResourceAsStream("/Data/twl.dawg");
+        }
+
+        new ValidWordBenchmark(is).run();
+    }
+}
@@ -0,0 +1,112 @@
+/*  This file is part of Wordplay Assistant.
+ *
+ *  Copyright 2012 Bryan Bueter
+ *
+ *  Wordplay Assistant is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Wordplay Assistant is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Wordplay Assistant.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package TESTING;
+
+import Assistant.*;
+import Assistant.util.*;
+import Dictionary.*;
+import Game.*;
+import java.io.*;
+import java.util.*;
+
+// Time the dictionary walk in WordPlay.wordFindall against the original search of
+// every permutation of every subset, on the same racks.  Racks are dealt by practice
+// games so blanks turn up as often as they would in play.  Each count of blanks is
+// timed on its own, the median of Timing.RUNS runs after Timing.WARMUPS untimed ones.
+// Run with an optional .dawg file, otherwise /Data/twl.dawg is used
+public class WordFindallBenchmark {
+    private static final int RACKS = 300;
+
+    private static final int MAX_BLANKS = 2;
+
+    private Lexicon dawg;
+    private ArrayList<ArrayList<Rack>> racks;
+
+    public WordFindallBenchmark(InputStream is) {
+        dawg = new FlatDawg(is);
+
+        // Racks by the number of blanks on them
+        racks = new ArrayList<ArrayList<Rack>>();
+        for (int blanks=0; blanks<=MAX_BLANKS; blanks++) {
+            racks.add(new ArrayList<Rack>());
+        }
+        for (int index=0; index<RACKS; index++) {
+            Rack rack = new BoardPracticeGame(dawg).rack();
+
+            int blanks = 0;
+            for (int tile=0; tile<rack.size(); tile++) {
+                if ( rack.tile(tile).isBlank() ) { blanks++; }
+            }
+            racks.get(blanks).add(rack);
+        }
+    }
+
+    private abstract class Search {
+        String name;
+        Search(String name) { this.name = name; }
+        abstract MovePackage find(Rack rack);
+    }
+
+    public void run() {
+        Search[] searches = {
+            new Search("wordFindallPermutations") {
+                MovePackage find(Rack rack) { return WordPlay.wordFindallPermutations(rack, dawg, DictionaryConstraint.NONE); }
+            },
+            new Search("wordFindall") {
+                MovePackage find(Rack rack) { return WordPlay.wordFindall(rack, dawg, DictionaryConstraint.NONE); }
+            },
+        };
+
+        System.out.println(RACKS + " racks, milliseconds per rack by number of blanks");
+        for (final Search search : searches) {
+            System.out.printf("%-25s", search.name);
+            for (int blanks=0; blanks<racks.size(); blanks++) {
+                final ArrayList<Rack> blankRacks = racks.get(blanks);
+                if ( blankRacks.isEmpty() ) { continue; }
+
+                long elapsed = Timing.median(new Timing.Trial() {
+                    public long run() { return measure(search, blankRacks); }
+                });
+                System.out.printf("  %d: %9.3f (%d)", blanks, elapsed / 1e6 / blankRacks.size(), blankRacks.size());
+            }
+            System.out.println();
+        }
+    }
+
+    // Elapsed nanoseconds to search every one of the racks
+    private long measure(Search search, ArrayList<Rack> blankRacks) {
+        long start = System.nanoTime();
+        for (int index=0; index<blankRacks.size(); index++) {
+            search.find(blankRacks.get(index));
+        }
+        return System.nanoTime() - start;
+    }
+
+    public static void main(String args[]) throws IOException {
+        InputStream is;
+        if ( args.length > 0 ) {
+            is = new FileInputStream(args[0]);
+        } else {
+            is = WordFindallBenchmark.class.getResourceAsStream("/Data/twl.dawg");
+        }
+
+        new WordFindallBenchmark(is).run();
+    }
+}
@@ -14,6 +14,12 @@ typedef struct node_list {
         struct node_list *next;
 } Node_List;
 
+/* Lists of children already seen by their first child, chained by hash */
+typedef struct dawg_register {
+        Node_List **buckets;
+        unsigned long size;
+} Dawg_Register;
+
 /* Construction functions */
 extern void dawg_add_child(Node_Construct*, Node_Construct*);
 extern Node_Construct* dawg_has_child(Node_Construct*, char);
@@ -21,8 +27,9 @@ extern int dawg_node_count(Node_Construct*);
 extern void dawg_print_node(Node_Construct*);
 
 /* Compression functions */
-extern boolean dawg_identical_children(Node_Construct*, Node_Construct*);
-extern int dawg_compress_phase(Node_Construct*, Node_List*, int);
+extern boolean dawg_identical_lists(Node_Construct*, Node_Construct*);
+extern unsigned long dawg_children_hash(Node_Construct*);
+extern int dawg_compress_node(Node_Construct*, Dawg_Register*);
 
 /* Storage and retrieval functions */
 extern unsigned int dawg_set_uid(Node_Construct*, unsigned int);
@@ -222,102 +229,124 @@ void dawg_print(Node_Construct *node, int level) {
   }
 }
 
-boolean dawg_identical_children(Node_Construct *node, Node_Construct *candidate) {
-/* Identical children point to the same node */
-  Node_Construct *childA = node->child;
-  Node_Construct *childB = candidate->child;
+boolean dawg_identical_lists(Node_Construct *childA, Node_Construct *childB) {
+/* Identical lists of children point to the same nodes, given the first child of each */
 
  /* Verify each child is exactly the same */
-  boolean matching = true;
-  while ( childA != NULL && childB != NULL && matching == true ) {
+  while ( childA != NULL && childB != NULL ) {
     if ( childA->value != childB->value ) {
-      matching = false;
-      break;
+      return false;
     }
     if ( childA->terminal != childB->terminal ) {
-      matching = false;
-      break;
+      return false;
     }
     if ( childA->child != childB->child ) {
-      matching = false;
-      break;
+      return false;
     }
     childA = childA->next_sibling;
     childB = childB->next_sibling;
   }
 
-  return matching;
+ /* One list of children must not simply be the start of the other */
+  return childA == NULL && childB == NULL;
 }
 
-void dawg_compress(Node_Construct *node) {
-/* Compress the noode by de-duplicating the suffixes.  */
-/* Since this could take a long time we print status along the way */
-  Node_List *list = malloc(sizeof(Node_List));
-  int max_depth = node->depth;
-  int i, count = 0;
-  int total = dawg_node_count(node);
+unsigned long dawg_children_hash(Node_Construct *node) {
+/* Hash the value, terminal and child pointer of every child down the sibling chain */
+  unsigned long hash = 17;
+  Node_Construct *child = node->child;
 
- /* Compression has to happen one phase at a time */
-  for (i=0; i<max_depth; i++) {
-    printf("Compressing phase %d\n", i);
-    list->node = NULL;
-    list->next = NULL;
-    count += dawg_compress_phase(node, list, i);
+  while ( child != NULL ) {
+    hash = hash * 31 + (unsigned char) child->value;
+    hash = hash * 31 + (child->terminal ? 1 : 0);
+    hash = hash * 31 + (unsigned long) child->child;
+    child = child->next_sibling;
   }
-  printf("\nDone, deduplicated %d of %d nodes\n", count, total);
 
-  free(list);
+  return hash ^ (hash >> 17);
 }
 
-int dawg_compress_phase(Node_Construct *node, Node_List *list, int depth) {
-/* Search for and compaire nodes at the specified depth and deduplicate if possible */
-  int count = 0;
+void dawg_compress(Node_Construct *node) {
+/* Compress the node by de-duplicating the suffixes.  Children are compressed   */
+/* before their parents, so two lists of children are the same exactly when     */
+/* they hold the same values, terminals and child pointers.  Lists already seen */
+/* are kept in a hash table, which makes this linear in the number of nodes     */
+  int total = dawg_node_count(node);
+  int count;
+  Dawg_Register reg;
+
+ /* Keep the table at least twice the size of what could go in it */
+  reg.size = 1024;
+  while ( reg.size < (unsigned long) total * 2 ) {
+    reg.size *= 2;
+  }
+  reg.buckets = calloc(reg.size, sizeof(Node_List*));
+  if ( reg.buckets == NULL ) {
+    printf("Error: out of memory\n");
+    exit(1);
+  }
 
- /* If depth matches, compare children of nodes in list */
-  if ( node->depth == depth ) {
-    Node_List *last_node = list;
-    Node_List *curr_node = list;
-    boolean replaced = false;
+  printf("Compressing...");
+  fflush(stdout);
+  count = dawg_compress_node(node, &reg);
+  printf("\nDone, deduplicated %d of %d nodes\n", count, total);
 
-   /* This is the first node in the list, update the list and return */
-    if ( last_node->node == NULL ) {
-      list->node = node;
-      return count;
+ /* Only the table goes, the nodes in it are part of the structure */
+  unsigned long i;
+  for (i=0; i<reg.size; i++) {
+    Node_List *entry = reg.buckets[i];
+    while ( entry != NULL ) {
+      Node_List *next = entry->next;
+      free(entry);
+      entry = next;
     }
+  }
+  free(reg.buckets);
+}
 
-   /* Walk through the list and compare each node */
-    while ( curr_node != NULL ) {
-      Node_Construct *candidate = curr_node->node;
+int dawg_compress_node(Node_Construct *node, Dawg_Register *reg) {
+/* Compress the children of node, then share its list of children if an identical one was seen */
+  int count = 0;
 
-     /* de-duplicate children if they are identical */
-      if ( dawg_identical_children(node, candidate) ) {
-        node->child = candidate->child;
-        replaced = true;
-        count++;
-        break;
-      }
+  if ( node->child == NULL ) {
+    return count;
+  }
 
-      last_node = curr_node;
-      curr_node = curr_node->next;
-    }
+ /* Every child needs its own children in their final form first */
+  Node_Construct *child = node->child;
+  while ( child != NULL ) {
+    count += dawg_compress_node(child, reg);
+    child = child->next_sibling;
+  }
 
-   /* Append node to the end of the list if we didnt find a replacement */
-    if ( ! replaced ) {
-      Node_List *next = malloc(sizeof(Node_List));
-      next->node = node;
-      next->next = NULL;
-      last_node->next = next;
+ /* Look for an identical list of children */
+  unsigned long bucket = dawg_children_hash(node) & (reg->size - 1);
+  Node_List *entry = reg->buckets[bucket];
+  while ( entry != NULL ) {
+    if ( dawg_identical_lists(node->child, entry->node) ) {
+      break;
     }
+    entry = entry->next;
+  }
 
-  } else {
-   /* Recursively evaluate all cildren */
-    Node_Construct *child = node->child;
+ /* First time we see this list, remember it */
+  if ( entry == NULL ) {
+    entry = malloc(sizeof(Node_List));
+    entry->node = node->child;
+    entry->next = reg->buckets[bucket];
+    reg->buckets[bucket] = entry;
+    return count;
+  }
 
-    while ( child != NULL ) {
-      count += dawg_compress_phase(child, list, depth);
-      child = child->next_sibling;
-    }
+ /* Nothing else points at our own copy, so it can go */
+  child = node->child;
+  while ( child != NULL ) {
+    Node_Construct *next = child->next_sibling;
+    free(child);
+    child = next;
   }
+  node->child = entry->node;
+  count++;
 
   return count;
 }